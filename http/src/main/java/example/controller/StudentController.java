@@ -4,43 +4,71 @@ import example.model.Student;
 import example.service.StudentService;
 import framework.annotations.*;
 import framework.request.Request;
+import framework.response.ETags;
 import framework.response.JsonResponse;
 import framework.response.Response;
+import framework.response.StreamingJsonResponse;
 
 import java.util.Map;
 
 @Controller
 public class StudentController {
+    private final StudentService studentService;
+
     @Autowired
-    private StudentService studentService;
+    public StudentController(StudentService studentService) {
+        this.studentService = studentService;
+    }
 
     @GET
     @Path("/students")
     public Response getAllStudents(Request request) {
-        return new JsonResponse(studentService.getAllStudents());
+        // Verzija se cita pre upita: ako upis stigne izmedju, tag je stariji od podataka, nikad noviji
+        String etag = ETags.fromVersion(studentService.getVersion());
+        // ?year=2 i ?name=An idu preko indeksa repozitorijuma
+        String year = request.getParameter("year");
+        if (year != null) {
+            try {
+                return tagged(new StreamingJsonResponse(studentService.getStudentsByYear(Integer.parseInt(year))), etag);
+            } catch (NumberFormatException e) {
+                return JsonResponse.error(400, "Bad Request", "Invalid year: " + year);
+            }
+        }
+        String name = request.getParameter("name");
+        if (name != null) {
+            return tagged(new StreamingJsonResponse(studentService.findStudentsByName(name)), etag);
+        }
+        return tagged(new StreamingJsonResponse(studentService.getAllStudents()), etag);
     }
 
     @GET
     @Path("/students/{id}")
+    @Cached("students")
     public Response getStudent(Request request) {
-        // ID je deo URL putanje, ne query parametar
-        String id = request.getLocation().split("/")[2];  // uzimamo ID iz URL-a
+        // ID je deo URL putanje, ne query parametar - router ga vec izdvaja
+        String id = request.getPathVariable("id");
+        String etag = ETags.fromVersion(studentService.getVersion());
         Student student = studentService.getStudent(id);
         if (student == null) {
             return new JsonResponse(Map.of("error", "Student not found"));
         }
-        return new JsonResponse(student);
+        return tagged(new JsonResponse(student), etag);
     }
 
     @POST
     @Path("/students")
-    public Response addStudent(Request request) {
-        String id = request.getParameter("id");
-        String name = request.getParameter("name");
-        int year = Integer.parseInt(request.getParameter("year"));
-
-        Student student = new Student(id, name, year);
+    @InvalidateCache("students")
+    public Response addStudent(@Body Student student) {
+        // Framework vezuje JSON ili form body direktno za Student
+        if (student.getId() == null) {
+            return JsonResponse.error(400, "Bad Request", "Student id is required");
+        }
         studentService.addStudent(student);
         return new JsonResponse(student);
     }
-}
\ No newline at end of file
+
+    private static Response tagged(Response response, String etag) {
+        response.addHeader("ETag", etag);
+        return response;
+    }
+}
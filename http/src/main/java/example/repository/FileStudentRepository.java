@@ -0,0 +1,414 @@
+package example.repository;
+
+import example.model.Student;
+import framework.annotations.Bean;
+import framework.annotations.Qualifier;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Durable repository: every save is appended to a write-ahead log and is on disk before
+ * {@link #save(Student)} returns. Queries are answered from an {@link InMemoryStudentRepository}
+ * that mirrors the log, so reads never touch the disk.
+ *
+ * Group commit: saves only add their record to a pending batch and wait. A single log thread
+ * writes the whole batch and calls {@code force} once for all of it, so concurrent saves share
+ * one fsync instead of paying for one each. Only then does it apply the batch to the in-memory
+ * copy, in log order, so readers never see a save that isn't on disk yet.
+ *
+ * When the log grows past {@code students.file.compactBytes}, the log thread starts a new log
+ * file and writes the current state as a binary snapshot; older logs are then deleted. On
+ * startup the snapshot is memory-mapped and loaded, and only the logs written after it are
+ * replayed. A half-written record at the end of the last log (a crash during a write) is cut off.
+ *
+ * A singleton: two instances over the same directory would be two unsynchronized writers of
+ * one log.
+ *
+ * Properties: students.file.dir (default {@code data/students}), students.file.fsync
+ * (default true; false leaves flushing to the OS), students.file.compactBytes (default 4 MB).
+ */
+@Bean
+@Qualifier("file")
+public class FileStudentRepository implements StudentRepository {
+    private static final String SNAPSHOT_FILE = "students.snapshot";
+    private static final String LOG_PREFIX = "students-";
+    private static final String LOG_SUFFIX = ".log";
+    private static final int SNAPSHOT_MAGIC = 0x53545544; // "STUD"
+    private static final int SNAPSHOT_FORMAT = 1;
+
+    private final Path directory;
+    private final boolean fsync;
+    private final long compactBytes;
+    private final InMemoryStudentRepository memory = new InMemoryStudentRepository();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition hasPending = lock.newCondition();
+    private final Condition committed = lock.newCondition();
+    // Polja ispod cuva lock
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    // Studenti iz pending, istim redom; u memoriju idu tek kad su upisani
+    private List<Student> pendingStudents = new ArrayList<>();
+    private long appended;
+    private long durable;
+    private IOException failure;
+    private boolean closed;
+
+    // Polja ispod koristi samo log nit (i konstruktor, pre nego sto je pokrene)
+    private FileChannel log;
+    private long generation;
+    private long logSize;
+    private final Thread committer;
+
+    public FileStudentRepository() {
+        this(Paths.get(System.getProperty("students.file.dir", "data/students")),
+                !"false".equalsIgnoreCase(System.getProperty("students.file.fsync")),
+                Long.getLong("students.file.compactBytes", 4L * 1024 * 1024));
+    }
+
+    public FileStudentRepository(Path directory, boolean fsync, long compactBytes) {
+        this.directory = directory.toAbsolutePath();
+        this.fsync = fsync;
+        this.compactBytes = compactBytes;
+        try {
+            Files.createDirectories(this.directory);
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open student store in " + this.directory, e);
+        }
+
+        this.committer = new Thread(this::commitLoop, "students-log");
+        committer.setDaemon(true);
+        committer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "students-log-close"));
+    }
+
+    @Override
+    public List<Student> findAll() {
+        return memory.findAll();
+    }
+
+    @Override
+    public Student findById(String id) {
+        return memory.findById(id);
+    }
+
+    @Override
+    public List<Student> findByYear(int year) {
+        return memory.findByYear(year);
+    }
+
+    @Override
+    public List<Student> findByNamePrefix(String prefix) {
+        return memory.findByNamePrefix(prefix);
+    }
+
+    @Override
+    public long version() {
+        return memory.version();
+    }
+
+    /**
+     * Appends the student to the log and returns once the record is durable. The student becomes
+     * visible to queries at the same time, not before.
+     *
+     * @throws IllegalArgumentException if the student has no id
+     * @throws UncheckedIOException if the log can no longer be written
+     */
+    @Override
+    public void save(Student student) {
+        // Validacija i kodiranje pre nego sto bilo sta ode u red
+        byte[] record = StudentCodec.encode(student);
+        lock.lock();
+        try {
+            checkWritable();
+            pending.write(record, 0, record.length);
+            pendingStudents.add(student);
+            long sequence = ++appended;
+            hasPending.signal();
+
+            while (durable < sequence) {
+                checkWritable();
+                committed.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes out what is pending and stops the log thread. Called from a shutdown hook.
+     */
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            hasPending.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            committer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void checkWritable() {
+        if (failure != null) {
+            throw new UncheckedIOException("Student log is not writable", failure);
+        }
+        if (closed) {
+            throw new IllegalStateException("Student repository is closed");
+        }
+    }
+
+    private void commitLoop() {
+        try {
+            while (true) {
+                ByteArrayOutputStream batch;
+                List<Student> batchStudents;
+                long batchEnd;
+                lock.lock();
+                try {
+                    while (pending.size() == 0 && !closed) {
+                        hasPending.awaitUninterruptibly();
+                    }
+                    if (pending.size() == 0) {
+                        return; // zatvoreno, a sve je vec upisano
+                    }
+                    batch = pending;
+                    pending = new ByteArrayOutputStream(Math.max(32, batch.size()));
+                    batchStudents = pendingStudents;
+                    pendingStudents = new ArrayList<>();
+                    batchEnd = appended;
+                } finally {
+                    lock.unlock();
+                }
+
+                // Jedan upis i jedan fsync za sve koji su cekali
+                log.write(ByteBuffer.wrap(batch.toByteArray()));
+                if (fsync) {
+                    log.force(false);
+                }
+                logSize += batch.size();
+
+                // Samo ova nit menja memoriju, pa je redosled isti kao u logu
+                for (Student student : batchStudents) {
+                    memory.save(student);
+                }
+                lock.lock();
+                try {
+                    durable = batchEnd;
+                    committed.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+
+                if (logSize >= compactBytes) {
+                    // Stanje u memoriji je tacno ono sto je u logu do ovog trenutka
+                    compact(memory.findAll());
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Student log failed, saves will be rejected: " + e);
+            lock.lock();
+            try {
+                failure = e instanceof IOException ? (IOException) e : new IOException(e);
+                committed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            try {
+                log.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+
+    /**
+     * Starts a new log and writes {@code students} (the state at the end of the current log) as
+     * the snapshot for it. The old logs are deleted only once the snapshot is safely in place.
+     */
+    private void compact(List<Student> students) throws IOException {
+        long start = System.nanoTime();
+        long next = generation + 1;
+        FileChannel nextLog = FileChannel.open(logFile(next),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        log.close();
+        log = nextLog;
+        generation = next;
+        logSize = 0;
+
+        writeSnapshot(students, next);
+        for (long old : logGenerations()) {
+            if (old < next) {
+                Files.deleteIfExists(logFile(old));
+            }
+        }
+        System.out.printf("Student log compacted: %d students in snapshot %d (%.1f ms)%n",
+                students.size(), next, (System.nanoTime() - start) / 1_000_000.0);
+    }
+
+    private void writeSnapshot(List<Student> students, long snapshotGeneration) throws IOException {
+        Path temporary = Files.createTempFile(directory, "snapshot", ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            OutputStream stream = Channels.newOutputStream(channel);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 64 * 1024));
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_FORMAT);
+            out.writeLong(snapshotGeneration);
+            out.writeInt(students.size());
+            for (Student student : students) {
+                out.write(StudentCodec.encode(student));
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temporary, directory.resolve(SNAPSHOT_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        // Preimenovanje mora biti na disku pre brisanja starih logova, inace pad moze da sacuva
+        // brisanje a izgubi novi snapshot
+        forceDirectory();
+    }
+
+    private void forceDirectory() throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Neki sistemi (Windows) ne dozvoljavaju otvaranje direktorijuma; tamo je move vec trajan
+            if (System.getProperty("os.name", "").startsWith("Windows")) {
+                return;
+            }
+            throw e;
+        }
+    }
+
+    private void recover() throws IOException {
+        long start = System.nanoTime();
+        long snapshotGeneration = loadSnapshot();
+        int loaded = memory.findAll().size();
+
+        List<Long> generations = logGenerations();
+        int replayed = 0;
+        for (int i = 0; i < generations.size(); i++) {
+            long logGeneration = generations.get(i);
+            if (logGeneration < snapshotGeneration) {
+                // Ostatak prekinutog sazimanja; snapshot ga vec sadrzi
+                Files.deleteIfExists(logFile(logGeneration));
+                continue;
+            }
+            replayed += replay(logGeneration, i == generations.size() - 1);
+        }
+
+        generation = Math.max(snapshotGeneration, generations.isEmpty() ? 1 : generations.get(generations.size() - 1));
+        log = FileChannel.open(logFile(generation), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        logSize = log.size();
+        log.position(logSize);
+
+        System.out.printf("Student store %s: %d students from snapshot, %d log records replayed (%.1f ms)%n",
+                directory, loaded, replayed, (System.nanoTime() - start) / 1_000_000.0);
+    }
+
+    /**
+     * Loads the snapshot through a read-only memory mapping and returns the first log generation
+     * it does not cover (0 if there is no snapshot).
+     */
+    private long loadSnapshot() throws IOException {
+        Path file = directory.resolve(SNAPSHOT_FILE);
+        if (!Files.isRegularFile(file)) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 20 || buffer.getInt() != SNAPSHOT_MAGIC || buffer.getInt() != SNAPSHOT_FORMAT) {
+                throw new IOException("Not a student snapshot: " + file);
+            }
+            long snapshotGeneration = buffer.getLong();
+            int count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                Student student = StudentCodec.decode(buffer);
+                if (student == null) {
+                    throw new IOException("Corrupt student snapshot " + file + " at record " + i);
+                }
+                memory.save(student);
+            }
+            return snapshotGeneration;
+        }
+    }
+
+    private int replay(long logGeneration, boolean last) throws IOException {
+        Path file = logFile(logGeneration);
+        int records = 0;
+        long valid;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            Student student;
+            while ((student = StudentCodec.decode(buffer)) != null) {
+                memory.save(student);
+                records++;
+            }
+            valid = buffer.position();
+            if (!buffer.hasRemaining()) {
+                return records;
+            }
+        }
+
+        // Samo poslednji log moze da ima nedovrsen zapis (pad usred upisa)
+        if (!last) {
+            throw new IOException("Corrupt student log " + file + " at byte " + valid);
+        }
+        System.out.println("Truncating incomplete record at the end of " + file + " (byte " + valid + ")");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(valid);
+            channel.force(true);
+        }
+        return records;
+    }
+
+    private List<Long> logGenerations() throws IOException {
+        List<Long> generations = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(LOG_PREFIX) && name.endsWith(LOG_SUFFIX))
+                    .forEach(name -> {
+                        try {
+                            generations.add(Long.parseLong(
+                                    name.substring(LOG_PREFIX.length(), name.length() - LOG_SUFFIX.length())));
+                        } catch (NumberFormatException e) {
+                            // nije nas fajl
+                        }
+                    });
+        }
+        generations.sort(null);
+        return generations;
+    }
+
+    private Path logFile(long logGeneration) {
+        return directory.resolve(LOG_PREFIX + logGeneration + LOG_SUFFIX);
+    }
+}
@@ -5,18 +5,66 @@ import framework.annotations.Component;
 import framework.annotations.Qualifier;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Thread-safe in-memory repository, shared by all request threads through the
+ * {@code StudentService} singleton.
+ *
+ * Lookups by id go to a {@link ConcurrentHashMap}; by year and by name prefix to sorted
+ * concurrent indexes, so no query has to scan every student. Reads never lock. Writes are
+ * serialized so a student and its index entries always change together, and each write bumps
+ * {@link #version()}. {@link #findAll()} returns an immutable snapshot that is rebuilt at most
+ * once per version, not copied on every call.
+ */
 @Component
 @Qualifier("inMemory")
 public class InMemoryStudentRepository implements StudentRepository {
-    private final Map<String, Student> students = new HashMap<>();
+    // Razdvaja ime od id-a u kljucu indeksa; manji je od svakog znaka koji se javlja u imenu
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private final Map<String, Student> students = new ConcurrentHashMap<>();
+    private final Map<Integer, ConcurrentNavigableMap<String, Student>> byYear = new ConcurrentHashMap<>();
+    // Kljuc: ime malim slovima + separator + id, pa su studenti sortirani po imenu
+    private final ConcurrentNavigableMap<String, Student> byName = new ConcurrentSkipListMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private final Object writeLock = new Object();
+    private volatile Snapshot snapshot = new Snapshot(0, List.of());
+
+    private static final class Snapshot {
+        final long version;
+        final List<Student> students;
+
+        Snapshot(long version, List<Student> students) {
+            this.version = version;
+            this.students = students;
+        }
+    }
 
     @Override
     public List<Student> findAll() {
-        return new ArrayList<>(students.values());
+        long current = version.get();
+        Snapshot cached = snapshot;
+        if (cached.version == current) {
+            return cached.students;
+        }
+        synchronized (this) {
+            // Drugi citalac je mozda vec napravio snapshot za ovu verziju
+            current = version.get();
+            cached = snapshot;
+            if (cached.version != current) {
+                cached = new Snapshot(current, List.copyOf(students.values()));
+                snapshot = cached;
+            }
+            return cached.students;
+        }
     }
 
     @Override
@@ -24,8 +72,47 @@ public class InMemoryStudentRepository implements StudentRepository {
         return students.get(id);
     }
 
+    @Override
+    public List<Student> findByYear(int year) {
+        NavigableMap<String, Student> index = byYear.get(year);
+        return index == null ? List.of() : List.copyOf(index.values());
+    }
+
+    @Override
+    public List<Student> findByNamePrefix(String prefix) {
+        String from = prefix.toLowerCase(Locale.ROOT);
+        return List.copyOf(byName.subMap(from, true, from + Character.MAX_VALUE, false).values());
+    }
+
     @Override
     public void save(Student student) {
-        students.put(student.getId(), student);
+        synchronized (writeLock) {
+            Student previous = students.put(student.getId(), student);
+            if (previous != null) {
+                unindex(previous);
+            }
+            byYear.computeIfAbsent(student.getYear(), year -> new ConcurrentSkipListMap<>()).put(student.getId(), student);
+            byName.put(nameKey(student), student);
+            // Verzija se menja tek posle indeksa, pa snapshot za novu verziju sigurno vidi upis
+            version.incrementAndGet();
+        }
+    }
+
+    @Override
+    public long version() {
+        return version.get();
+    }
+
+    private void unindex(Student student) {
+        NavigableMap<String, Student> index = byYear.get(student.getYear());
+        if (index != null) {
+            index.remove(student.getId());
+        }
+        byName.remove(nameKey(student));
+    }
+
+    private static String nameKey(Student student) {
+        String name = student.getName() == null ? "" : student.getName().toLowerCase(Locale.ROOT);
+        return name + KEY_SEPARATOR + student.getId();
     }
 }
@@ -0,0 +1,403 @@
+package example.repository;
+
+import example.model.Student;
+import framework.annotations.Bean;
+import framework.annotations.Qualifier;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.RandomAccess;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Repository for very large datasets: records live outside the Java heap, so heap use and GC
+ * work don't grow with the number of students.
+ *
+ * Records are appended to direct {@link ByteBuffer} segments in a compact layout
+ * ({@code live (byte), year (int), id length (int), id, name length (int), name}, strings in
+ * UTF-8, name length -1 for null). Ids are found through an open-addressing hash table made of
+ * two primitive arrays (hash and record address), which costs the GC two objects no matter how
+ * many entries they hold. {@link Student} objects are only created for records that are
+ * returned; {@link #findAll()} returns a list that decodes each record when it is read.
+ *
+ * Saving an existing id appends a new record and marks the old one dead; dead records are not
+ * reclaimed. Lookups by id run without locking (optimistic {@link StampedLock} reads);
+ * year and name queries scan the segments under a read lock.
+ *
+ * A singleton, so every injection point sees the same store.
+ *
+ * Property: students.offHeap.segmentBytes (default 16 MB), the size of each direct segment.
+ */
+@Bean
+@Qualifier("offHeap")
+public class OffHeapStudentRepository implements StudentRepository {
+    private static final int INITIAL_CAPACITY = 1024;
+    // Popunjenost tabele posle koje se udvostrucuje
+    private static final float LOAD_FACTOR = 0.6f;
+    private static final byte LIVE = 1;
+    private static final byte DEAD = 0;
+
+    private final int segmentBytes;
+    private final StampedLock lock = new StampedLock();
+
+    // Sve ispod menja samo pisac, pod write lock-om
+    private ByteBuffer[] segments = new ByteBuffer[0];
+    // Koliko je bajtova zauzeto u svakom segmentu
+    private int[] segmentEnds = new int[0];
+    private int writeOffset;
+    // Adresa zapisa + 1 (0 je prazno mesto): segment << 32 | offset
+    private long[] addresses = new long[INITIAL_CAPACITY];
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    private int size;
+    private volatile long version;
+    private volatile RecordList snapshot = new RecordList(0, new long[0], new ByteBuffer[0]);
+
+    public OffHeapStudentRepository() {
+        this(Integer.getInteger("students.offHeap.segmentBytes", 16 * 1024 * 1024));
+    }
+
+    public OffHeapStudentRepository(int segmentBytes) {
+        this.segmentBytes = segmentBytes;
+    }
+
+    @Override
+    public Student findById(String id) {
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(id);
+        long stamp = lock.tryOptimisticRead();
+        ByteBuffer[] current = segments;
+        long address;
+        try {
+            address = find(key, hash);
+        } catch (RuntimeException e) {
+            // Citali smo usred izmene (npr. prosirivanja tabele); ponavljamo pod read lock-om
+            address = -1;
+        }
+        // Dekodira se tek kada je adresa potvrdjena: duzine u zapisu tada nisu polu-upisane,
+        // a zapis se posle upisa vise ne menja (osim oznake live)
+        if (address != -1 && lock.validate(stamp)) {
+            return address == 0 ? null : decode(current, address - 1);
+        }
+        stamp = lock.readLock();
+        try {
+            address = find(key, hash);
+            return address == 0 ? null : decode(address - 1);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * All live students as a read-only list over a snapshot of record addresses. Records are
+     * decoded only when the list is read, one at a time.
+     */
+    @Override
+    public List<Student> findAll() {
+        RecordList cached = snapshot;
+        if (cached.version == version) {
+            return cached;
+        }
+        long stamp = lock.readLock();
+        try {
+            long[] live = new long[size];
+            int count = 0;
+            for (long address : addresses) {
+                if (address != 0) {
+                    live[count++] = address - 1;
+                }
+            }
+            // Lista pamti i niz segmenata, pa je citljiva bez lock-a i posle novih upisa
+            cached = new RecordList(version, live, segments);
+            snapshot = cached;
+            return cached;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public List<Student> findByYear(int year) {
+        List<Student> found = new ArrayList<>();
+        long stamp = lock.readLock();
+        try {
+            forEachLive(address -> {
+                if (segment(address).getInt(offset(address) + 1) == year) {
+                    found.add(decode(address));
+                }
+            });
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        return found;
+    }
+
+    @Override
+    public List<Student> findByNamePrefix(String prefix) {
+        String lowerPrefix = prefix.toLowerCase(Locale.ROOT);
+        List<Student> found = new ArrayList<>();
+        long stamp = lock.readLock();
+        try {
+            forEachLive(address -> {
+                // Student se pravi samo za pogotke
+                String name = decodeName(address);
+                if (name != null && name.regionMatches(true, 0, lowerPrefix, 0, lowerPrefix.length())) {
+                    found.add(decode(address));
+                }
+            });
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        found.sort(Comparator.comparing((Student student) -> student.getName().toLowerCase(Locale.ROOT))
+                .thenComparing(Student::getId));
+        return found;
+    }
+
+    @Override
+    public void save(Student student) {
+        byte[] id = student.getId().getBytes(StandardCharsets.UTF_8);
+        byte[] name = student.getName() == null ? null : student.getName().getBytes(StandardCharsets.UTF_8);
+        int hash = hash(student.getId());
+
+        long stamp = lock.writeLock();
+        try {
+            long address = append(id, name, student.getYear());
+            int slot = slot(id, hash);
+            if (addresses[slot] != 0) {
+                long previous = addresses[slot] - 1;
+                segment(previous).put(offset(previous), DEAD);
+                addresses[slot] = address + 1;
+            } else {
+                addresses[slot] = address + 1;
+                hashes[slot] = hash;
+                size++;
+                if (size > addresses.length * LOAD_FACTOR) {
+                    resize();
+                }
+            }
+            version++;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public long version() {
+        return version;
+    }
+
+    private long append(byte[] id, byte[] name, int year) {
+        int length = 1 + 4 + 4 + id.length + 4 + (name == null ? 0 : name.length);
+        if (length > segmentBytes) {
+            throw new IllegalArgumentException("Student record of " + length + " bytes does not fit in a segment");
+        }
+        if (segments.length == 0 || writeOffset + length > segmentBytes) {
+            ByteBuffer[] grown = Arrays.copyOf(segments, segments.length + 1);
+            grown[segments.length] = ByteBuffer.allocateDirect(segmentBytes);
+            segmentEnds = Arrays.copyOf(segmentEnds, grown.length);
+            segments = grown;
+            writeOffset = 0;
+        }
+        int segmentIndex = segments.length - 1;
+        ByteBuffer segment = segments[segmentIndex];
+        int offset = writeOffset;
+
+        int position = offset;
+        segment.put(position, LIVE);
+        segment.putInt(position + 1, year);
+        position = putBytes(segment, position + 5, id);
+        if (name == null) {
+            segment.putInt(position, -1);
+        } else {
+            putBytes(segment, position, name);
+        }
+        writeOffset += length;
+        segmentEnds[segmentIndex] = writeOffset;
+        return ((long) segmentIndex << 32) | offset;
+    }
+
+    private static int putBytes(ByteBuffer segment, int position, byte[] bytes) {
+        segment.putInt(position, bytes.length);
+        position += 4;
+        for (byte b : bytes) {
+            segment.put(position++, b);
+        }
+        return position;
+    }
+
+    /**
+     * Address + 1 of the record with this id, or 0 if there is none.
+     */
+    private long find(byte[] id, int hash) {
+        long[] table = addresses;
+        int[] tableHashes = hashes;
+        int mask = table.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            long address = table[slot];
+            if (address == 0) {
+                return 0;
+            }
+            if (tableHashes[slot] == hash && idEquals(address - 1, id)) {
+                return address;
+            }
+        }
+    }
+
+    // Mesto za id: postojece ako ga ima, inace prvo prazno (linearno probanje)
+    private int slot(byte[] id, int hash) {
+        int mask = addresses.length - 1;
+        int slot = hash & mask;
+        while (addresses[slot] != 0 && !(hashes[slot] == hash && idEquals(addresses[slot] - 1, id))) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize() {
+        long[] oldAddresses = addresses;
+        int[] oldHashes = hashes;
+        long[] newAddresses = new long[oldAddresses.length * 2];
+        int[] newHashes = new int[newAddresses.length];
+        int mask = newAddresses.length - 1;
+        for (int i = 0; i < oldAddresses.length; i++) {
+            if (oldAddresses[i] != 0) {
+                int slot = oldHashes[i] & mask;
+                while (newAddresses[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                newAddresses[slot] = oldAddresses[i];
+                newHashes[slot] = oldHashes[i];
+            }
+        }
+        // Hash-evi pre adresa, da optimisticni citalac ne vidi adresu sa pogresnim hash-om
+        hashes = newHashes;
+        addresses = newAddresses;
+    }
+
+    // Zove se i bez lock-a, pa ne veruje nicemu sto procita: indeks segmenta i duzina se proveravaju
+    private boolean idEquals(long address, byte[] id) {
+        ByteBuffer[] current = segments;
+        int segmentIndex = (int) (address >>> 32);
+        if (segmentIndex < 0 || segmentIndex >= current.length) {
+            return false;
+        }
+        ByteBuffer segment = current[segmentIndex];
+        int position = offset(address) + 5;
+        if (position < 5 || position > segment.limit() - 4 - id.length || segment.getInt(position) != id.length) {
+            return false;
+        }
+        position += 4;
+        for (int i = 0; i < id.length; i++) {
+            if (segment.get(position + i) != id[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Student decode(long address) {
+        return decode(segments, address);
+    }
+
+    private static Student decode(ByteBuffer[] segments, long address) {
+        ByteBuffer segment = segments[(int) (address >>> 32)];
+        int position = offset(address);
+        int year = segment.getInt(position + 1);
+        position += 5;
+        int idLength = segment.getInt(position);
+        String id = getString(segment, position + 4, idLength);
+        position += 4 + idLength;
+        int nameLength = segment.getInt(position);
+        String name = nameLength < 0 ? null : getString(segment, position + 4, nameLength);
+        return new Student(id, name, year);
+    }
+
+    private String decodeName(long address) {
+        ByteBuffer segment = segment(address);
+        int position = offset(address) + 5;
+        position += 4 + segment.getInt(position);
+        int nameLength = segment.getInt(position);
+        return nameLength < 0 ? null : getString(segment, position + 4, nameLength);
+    }
+
+    private static String getString(ByteBuffer segment, int position, int length) {
+        if (length < 0 || length > segment.limit() - position) {
+            throw new IllegalStateException("Corrupt student record: length " + length + " at " + position);
+        }
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = segment.get(position + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private interface RecordVisitor {
+        void visit(long address);
+    }
+
+    // Redom kroz segmente; poziva se pod read lock-om
+    private void forEachLive(RecordVisitor visitor) {
+        for (int segmentIndex = 0; segmentIndex < segments.length; segmentIndex++) {
+            ByteBuffer segment = segments[segmentIndex];
+            int end = segmentEnds[segmentIndex];
+            int position = 0;
+            while (position < end) {
+                int length = recordLength(segment, position);
+                if (segment.get(position) == LIVE) {
+                    visitor.visit(((long) segmentIndex << 32) | position);
+                }
+                position += length;
+            }
+        }
+    }
+
+    private static int recordLength(ByteBuffer segment, int position) {
+        int idLength = segment.getInt(position + 5);
+        int nameLength = segment.getInt(position + 9 + idLength);
+        return 1 + 4 + 4 + idLength + 4 + Math.max(nameLength, 0);
+    }
+
+    private ByteBuffer segment(long address) {
+        return segments[(int) (address >>> 32)];
+    }
+
+    private static int offset(long address) {
+        return (int) address;
+    }
+
+    private static int hash(String id) {
+        int hash = id.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Read-only list over record addresses; each {@link #get(int)} decodes one record.
+     * Records are never moved or rewritten, so the addresses stay valid after later saves.
+     */
+    private static final class RecordList extends AbstractList<Student> implements RandomAccess {
+        final long version;
+        private final long[] recordAddresses;
+        private final ByteBuffer[] segments;
+
+        RecordList(long version, long[] recordAddresses, ByteBuffer[] segments) {
+            this.version = version;
+            this.recordAddresses = recordAddresses;
+            this.segments = segments;
+        }
+
+        @Override
+        public Student get(int index) {
+            return decode(segments, recordAddresses[index]);
+        }
+
+        @Override
+        public int size() {
+            return recordAddresses.length;
+        }
+    }
+}
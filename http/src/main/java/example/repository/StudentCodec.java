@@ -0,0 +1,120 @@
+package example.repository;
+
+import example.model.Student;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * Binary record format shared by the student log and snapshot files.
+ *
+ * A record is {@code length (int), crc32 of payload (int), payload}; the payload is
+ * {@code type (byte), id, name, year (int)}, where strings are a UTF-8 byte count followed by the
+ * bytes, and a count of -1 means null. The checksum lets recovery tell a half-written record at
+ * the end of the log from a complete one.
+ *
+ * The id is never null in a record: {@link #encode} rejects such a student, so a record that
+ * decodes to null is always incomplete or damaged, never a valid write.
+ */
+final class StudentCodec {
+    static final int HEADER_BYTES = 8;
+    private static final byte PUT = 1;
+
+    private StudentCodec() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if the student has no id
+     */
+    static byte[] encode(Student student) {
+        if (student.getId() == null) {
+            throw new IllegalArgumentException("Student id is required");
+        }
+        byte[] id = bytes(student.getId());
+        byte[] name = bytes(student.getName());
+        int payload = 1 + stringSize(id) + stringSize(name) + 4;
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + payload);
+        buffer.putInt(payload);
+        buffer.putInt(0); // checksum se upisuje na kraju
+        buffer.put(PUT);
+        putString(buffer, id);
+        putString(buffer, name);
+        buffer.putInt(student.getYear());
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), HEADER_BYTES, payload);
+        buffer.putInt(4, (int) crc.getValue());
+        return buffer.array();
+    }
+
+    /**
+     * Reads the record at the buffer's position and moves past it. Returns null, with the position
+     * unchanged, if the rest of the buffer doesn't hold a complete, intact record.
+     */
+    static Student decode(ByteBuffer buffer) {
+        int start = buffer.position();
+        if (buffer.remaining() < HEADER_BYTES) {
+            return null;
+        }
+        int payload = buffer.getInt();
+        int checksum = buffer.getInt();
+        if (payload <= 0 || payload > buffer.remaining()) {
+            buffer.position(start);
+            return null;
+        }
+
+        CRC32 crc = new CRC32();
+        ByteBuffer slice = buffer.slice();
+        slice.limit(payload);
+        crc.update(slice);
+        if ((int) crc.getValue() != checksum) {
+            buffer.position(start);
+            return null;
+        }
+
+        try {
+            if (buffer.get() != PUT) {
+                buffer.position(start);
+                return null;
+            }
+            String id = getString(buffer);
+            String name = getString(buffer);
+            int year = buffer.getInt();
+            buffer.position(start + HEADER_BYTES + payload);
+            return id == null ? null : new Student(id, name, year);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            buffer.position(start);
+            return null;
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int stringSize(byte[] value) {
+        return 4 + (value == null ? 0 : value.length);
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        buffer.putInt(value.length);
+        buffer.put(value);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] value = new byte[length];
+        buffer.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}
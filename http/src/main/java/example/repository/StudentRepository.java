@@ -1,13 +1,29 @@
 package example.repository;
 
 import example.model.Student;
-import framework.annotations.Component;
-import framework.annotations.Qualifier;
 
 import java.util.List;
 
 public interface StudentRepository {
+    /**
+     * All students. The returned list is read-only and may be shared between callers.
+     */
     List<Student> findAll();
+
     Student findById(String id);
+
+    List<Student> findByYear(int year);
+
+    /**
+     * Students whose name starts with {@code prefix}, ignoring case, ordered by name.
+     */
+    List<Student> findByNamePrefix(String prefix);
+
     void save(Student student);
+
+    /**
+     * Number that changes on every write, so callers can tell whether data they already have is
+     * still current.
+     */
+    long version();
 }
@@ -10,14 +10,29 @@ import java.util.List;
 
 @Service
 public class StudentService {
+    private final StudentRepository studentRepository;
+
     @Autowired
-    @Qualifier("inMemory")
-    private StudentRepository studentRepository;
+    public StudentService(@Qualifier("${students.repository:inMemory}") StudentRepository studentRepository) {
+        this.studentRepository = studentRepository;
+    }
 
     public List<Student> getAllStudents() {
         return studentRepository.findAll();
     }
 
+    public List<Student> getStudentsByYear(int year) {
+        return studentRepository.findByYear(year);
+    }
+
+    public List<Student> findStudentsByName(String prefix) {
+        return studentRepository.findByNamePrefix(prefix);
+    }
+
+    public long getVersion() {
+        return studentRepository.version();
+    }
+
     public Student getStudent(String id) {
         return studentRepository.findById(id);
     }
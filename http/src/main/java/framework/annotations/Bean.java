@@ -5,8 +5,16 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+/**
+ * Scopes: "singleton", "prototype" (new instance per injection), "request" (one instance per
+ * handled request), "thread" (one instance per thread) and "pooled" (instances borrowed from a
+ * pool of {@link #poolSize()} for the duration of a request).
+ */
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.TYPE)
 public @interface Bean {
     String scope() default "singleton";
+
+    // Samo za scope = "pooled"
+    int poolSize() default 16;
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package framework.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a controller method parameter that is bound from the request body.
+ *
+ * A JSON body ({@code Content-Type: application/json}) is deserialized straight into the
+ * parameter type with the shared JSON codec; for form bodies the request parameters are bound
+ * by name. A body that doesn't match the type is answered with 400 Bad Request.
+ *
+ * <pre>
+ * &#64;POST
+ * &#64;Path("/students")
+ * public Response addStudent(&#64;Body Student student) { ... }
+ * </pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.PARAMETER)
+public @interface Body {
+}
@@ -0,0 +1,41 @@
+package framework.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Caches the responses of a GET route. A hit is answered with the stored response bytes,
+ * without calling the controller or serializing anything.
+ *
+ * Entries are keyed by route and request target (path and query string) and kept in the named
+ * cache; routes that return related data should share a name, so one {@link InvalidateCache}
+ * clears them together. Only {@code 200} responses are stored. Streaming responses are never
+ * stored; they are sent as they are produced. Routes that share a cache must declare the same
+ * limits.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Cached {
+    /**
+     * Name of the cache the entries are kept in.
+     */
+    String value();
+
+    /**
+     * Seconds an entry stays valid; 0 keeps it until it is invalidated or evicted.
+     */
+    int ttlSeconds() default 60;
+
+    /**
+     * Entries kept in this cache before the oldest are evicted.
+     */
+    int maxEntries() default 1000;
+
+    /**
+     * Total size of the stored responses, in bytes, before the oldest are evicted. A single
+     * response larger than this is not stored.
+     */
+    long maxBytes() default 16 * 1024 * 1024;
+}
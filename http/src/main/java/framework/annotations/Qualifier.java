@@ -5,8 +5,16 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+/**
+ * Names an implementation (on the class) or picks one by name (on an injected field or
+ * constructor parameter of interface type).
+ *
+ * At an injection point the name may be a system property placeholder,
+ * {@code "${property}"} or {@code "${property:default}"}, so the implementation can be chosen at
+ * startup, e.g. {@code @Qualifier("${students.repository:inMemory}")}.
+ */
 @Retention(RetentionPolicy.RUNTIME)
-@Target({ElementType.FIELD, ElementType.TYPE})
+@Target({ElementType.FIELD, ElementType.PARAMETER, ElementType.TYPE})
 public @interface Qualifier {
     String value();
 }
\ No newline at end of file
@@ -0,0 +1,55 @@
+package framework.di;
+
+/**
+ * Dependency injection settings, read from system properties like {@code server.ServerConfig}.
+ */
+public class DIConfig {
+    private final InitializationMode initializationMode;
+    private final boolean warmup;
+    private final boolean report;
+    private final boolean verbose;
+
+    public DIConfig(InitializationMode initializationMode, boolean warmup, boolean report, boolean verbose) {
+        this.initializationMode = initializationMode;
+        this.warmup = warmup;
+        this.report = report;
+        this.verbose = verbose;
+    }
+
+    /**
+     * Supported properties:
+     * di.init (eager | lazy), di.warmup (build lazy singletons in the background once the server
+     * is listening), di.report (print per-class construction and injection times),
+     * di.verbose (log every injected field)
+     */
+    public static DIConfig fromSystemProperties() {
+        return new DIConfig(
+                parseInitializationMode(System.getProperty("di.init", "eager")),
+                Boolean.getBoolean("di.warmup"),
+                Boolean.getBoolean("di.report"),
+                Boolean.getBoolean("di.verbose")
+        );
+    }
+
+    private static InitializationMode parseInitializationMode(String value) {
+        switch (value.trim().toLowerCase()) {
+            case "eager":
+                return InitializationMode.EAGER;
+            case "lazy":
+                return InitializationMode.LAZY;
+            default:
+                throw new IllegalArgumentException("Unknown di.init value: " + value);
+        }
+    }
+
+    public InitializationMode getInitializationMode() { return initializationMode; }
+    public boolean isLazy() { return initializationMode == InitializationMode.LAZY; }
+    public boolean isWarmup() { return warmup; }
+    public boolean isReport() { return report; }
+    public boolean isVerbose() { return verbose; }
+
+    @Override
+    public String toString() {
+        return "init=" + initializationMode + ", warmup=" + warmup + ", report=" + report;
+    }
+}
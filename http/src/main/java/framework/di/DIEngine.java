@@ -1,27 +1,90 @@
 package framework.di;
 
 import framework.annotations.*;
+import framework.request.exceptions.CircularDependencyException;
 import framework.request.exceptions.DependencyResolutionException;
 import framework.request.exceptions.InvalidAutowiredTargetException;
 import framework.request.exceptions.MissingQualifierException;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 /**
   Handles dependency injection using reflection.
   Responsible for creating and injecting instances of classes.
+
+  Safe to use from request threads: built controllers and singletons are read without locking
+  (from an immutable registry once startup is done), and creating them runs under one lock, so
+  a circular dependency is always walked by a single thread and caught on its resolution stack.
+
+  Reflection is done once per class: the first instantiation builds an {@link InjectionPlan}
+  (constructor and field setter handles, resolved implementation classes) that every later
+  instance of that class reuses.
+
+  Besides singletons (@Service, @Controller, @Bean) and prototypes (@Component), @Bean supports
+  "request", "thread" and "pooled" scopes; request scope is opened around every routed request.
  */
 public class DIEngine {
+    private static final MethodHandle FUNCTION_APPLY;
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class, Object[].class);
+
+    static {
+        try {
+            FUNCTION_APPLY = MethodHandles.publicLookup()
+                    .findVirtual(Function.class, "apply", MethodType.methodType(Object.class, Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     private final DependencyContainer container;
-    private final Set<Class<?>> beingInstantiated;
+    private final DIConfig config;
+    private final StartupReport report;
+    // Vreme provedeno u pravljenju zavisnosti, da se ne racuna roditelju kao injekcija
+    private final ThreadLocal<long[]> nestedCreationNanos;
+    private final List<Class<?>> deferredSingletons;
+    private final ThreadLocal<RequestContext> requestContext;
+    private final ThreadLocal<Map<Class<?>, Object>> threadInstances;
+    private final ThreadLocal<Set<Class<?>>> resolutionStack;
     private final Map<Class<?>, Object> controllerInstances;
+    // Jedan monitor za svako pravljenje: sa lockom po klasi dve niti koje krenu sa suprotnih
+    // krajeva ciklusa zakljucaju jedna drugu, a resolutionStack vidi samo svoju nit
+    private final Object creationLock;
+    private final Map<Class<?>, InjectionPlan> plans;
+    private final Map<Class<?>, Function<Object[], Object>> factories;
+    // Nepromenljiva kopija svih kontrolera i singletona, objavljena posle startup-a
+    private volatile Map<Class<?>, Object> published;
 
     public DIEngine(DependencyContainer container) {
+        this(container, DIConfig.fromSystemProperties());
+    }
+
+    public DIEngine(DependencyContainer container, DIConfig config) {
         this.container = container;
-        this.beingInstantiated = new HashSet<>();
-        this.controllerInstances = new HashMap<>();
+        this.config = config;
+        this.report = new StartupReport();
+        this.nestedCreationNanos = ThreadLocal.withInitial(() -> new long[1]);
+        this.deferredSingletons = new ArrayList<>();
+        this.requestContext = ThreadLocal.withInitial(RequestContext::new);
+        this.threadInstances = ThreadLocal.withInitial(HashMap::new);
+        this.resolutionStack = ThreadLocal.withInitial(LinkedHashSet::new);
+        this.controllerInstances = new ConcurrentHashMap<>();
+        this.creationLock = new Object();
+        this.plans = new ConcurrentHashMap<>();
+        this.factories = new ConcurrentHashMap<>();
+        this.published = Map.of();
     }
 
 
@@ -42,15 +105,22 @@ public class DIEngine {
         // Initialize services
         System.out.println("\nInitializing Services:");
         for (Class<?> clazz : serviceClasses) {
-            initializeSingleton(clazz);
+            initializeOrDefer(clazz);
         }
 
         // Initialize singleton beans
         System.out.println("\nInitializing Singleton Beans:");
         for (Class<?> clazz : beanClasses) {
-            if (isSingletonBean(clazz)) {
-                initializeSingleton(clazz);
+            if (!isSingletonBean(clazz)) {
+                continue;
+            }
+            if (clazz.isAnnotationPresent(Qualifier.class)) {
+                // Alternativne implementacije interfejsa se prave tek kada ih neko injektuje,
+                // da se ne otvaraju resursi implementacije koju nijedan @Qualifier nije izabrao
+                System.out.println("Qualified bean " + clazz.getSimpleName() + " will be created when injected");
+                continue;
             }
+            initializeOrDefer(clazz);
         }
 
         // Log components
@@ -76,12 +146,21 @@ public class DIEngine {
         }
     }
 
+    private void initializeOrDefer(Class<?> clazz) {
+        if (config.isLazy()) {
+            System.out.println("Deferring " + clazz.getSimpleName() + " until first use");
+            deferredSingletons.add(clazz);
+        } else {
+            initializeSingleton(clazz);
+        }
+    }
+
     private void initializeSingleton(Class<?> clazz) {
         try {
             System.out.println("Creating instance of: " + clazz.getSimpleName());
             instantiate(clazz);
         } catch (Exception e) {
-            throw new DependencyResolutionException("Failed to initialize " + clazz.getName());
+            throw new DependencyResolutionException("Failed to initialize " + clazz.getName(), e);
         }
     }
 
@@ -89,115 +168,482 @@ public class DIEngine {
    // Create or get an instance of a class with all dependencies injected
 
     public Object instantiate(Class<?> clazz) throws Exception {
-        // Check for circular dependencies
-        if (!beingInstantiated.add(clazz)) {
-            throw new DependencyResolutionException("Circular dependency detected for class: " + clazz.getName());
+        InjectionPlan plan = planFor(clazz);
+        switch (plan.getKind()) {
+            case CONTROLLER:
+                return getControllerInstance(plan);
+            case SINGLETON:
+                return getSingletonInstance(plan);
+            case REQUEST:
+                return getRequestInstance(plan);
+            case THREAD:
+                return getThreadInstance(plan);
+            case POOLED:
+                return getPooledInstance(plan);
+            default:
+                // Prototype - new instance every time
+                return create(plan);
         }
+    }
 
-        try {
-            // If it's a controller, use the controller cache
-            if (clazz.isAnnotationPresent(Controller.class)) {
-                return getControllerInstance(clazz);
-            }
+    private Object getSingletonInstance(InjectionPlan plan) throws Exception {
+        Class<?> clazz = plan.getType();
+        Object instance = published.get(clazz);
+        if (instance == null) {
+            instance = container.getSingleton(clazz);
+        }
+        if (instance != null) {
+            return instance;
+        }
 
-            // For other classes, check if it's a singleton and already exists
-            if (isSingleton(clazz) && container.hasSingleton(clazz)) {
-                return container.getSingleton(clazz);
+        synchronized (creationLock) {
+            instance = container.getSingleton(clazz);
+            if (instance == null) {
+                instance = create(plan);
+                // Registrujemo tek posle injekcije, da druge niti nikad ne vide polu-napravljen objekat
+                container.registerSingleton(clazz, instance);
             }
+            return instance;
+        }
+    }
 
-            // Create new instance
-            Object instance = clazz.getDeclaredConstructor().newInstance();
+    private Object getRequestInstance(InjectionPlan plan) throws Exception {
+        RequestContext context = requestContext.get();
+        if (!context.isActive()) {
+            throw new DependencyResolutionException("No request is being handled, cannot resolve request-scoped " +
+                    plan.getType().getName() + " (inject it through a Provider)");
+        }
+        Object instance = context.get(plan.getType());
+        if (instance == null) {
+            instance = create(plan);
+            context.put(plan.getType(), instance);
+        }
+        return instance;
+    }
 
-            // If singleton, register it immediately to handle circular dependencies
-            if (isSingleton(clazz)) {
-                container.registerSingleton(clazz, instance);
+    private Object getThreadInstance(InjectionPlan plan) throws Exception {
+        Map<Class<?>, Object> instances = threadInstances.get();
+        Object instance = instances.get(plan.getType());
+        if (instance == null) {
+            instance = create(plan);
+            instances.put(plan.getType(), instance);
+        }
+        return instance;
+    }
+
+    private Object getPooledInstance(InjectionPlan plan) throws Exception {
+        RequestContext context = requestContext.get();
+        if (!context.isActive()) {
+            // Van zahteva nema trenutka kada bi se instanca vratila, pa se ponasa kao prototype
+            return create(plan);
+        }
+        Object instance = plan.getPool().borrow();
+        if (instance == null) {
+            instance = create(plan);
+        }
+        context.borrowed(plan.getPool(), instance);
+        return instance;
+    }
+
+    /**
+     * Starts request scope on the calling thread. Request-scoped beans resolved until
+     * {@link #exitRequestScope()} are shared, and pooled beans are borrowed until then.
+     */
+    public void enterRequestScope() {
+        requestContext.get().enter();
+    }
+
+    /**
+     * Ends request scope on the calling thread: drops request-scoped beans and returns pooled
+     * ones to their pools (after {@link Poolable#reset()}).
+     */
+    public void exitRequestScope() {
+        requestContext.get().exit();
+    }
+
+    private Object getControllerInstance(InjectionPlan plan) throws Exception {
+        Class<?> controllerClass = plan.getType();
+        Object instance = published.get(controllerClass);
+        if (instance == null) {
+            instance = controllerInstances.get(controllerClass);
+        }
+        if (instance != null) {
+            return instance;
+        }
+
+        synchronized (creationLock) {
+            instance = controllerInstances.get(controllerClass);
+            if (instance == null) {
+                try {
+                    instance = create(plan);
+                } catch (CircularDependencyException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new DependencyResolutionException("Failed to create controller: " +
+                            controllerClass.getName(), e);
+                }
+                controllerInstances.put(controllerClass, instance);
+                System.out.println("Created and cached controller instance: " +
+                        controllerClass.getSimpleName());
             }
+            return instance;
+        }
+    }
+
+    // Creates a new instance and injects it; detects cycles on this thread's resolution stack
+    private Object create(InjectionPlan plan) throws Exception {
+        Class<?> clazz = plan.getType();
+        Set<Class<?>> stack = resolutionStack.get();
+        if (!stack.add(clazz)) {
+            throw new CircularDependencyException("Circular dependency detected: " + describeCycle(stack, clazz));
+        }
 
-            // Inject dependencies
-            injectDependencies(instance);
+        long[] nested = nestedCreationNanos.get();
+        long outerNested = nested[0];
+        nested[0] = 0;
+        long start = System.nanoTime();
+        try {
+            // Zavisnosti konstruktora se prave pre instance; ciklus se otkriva na istom steku
+            InjectionPlan.InjectionPoint[] parameters = plan.getConstructorArguments();
+            Object[] arguments = plan.newArguments();
+            for (int i = 0; i < parameters.length; i++) {
+                arguments[i] = resolve(parameters[i]);
+            }
+            long nestedBeforeConstruction = nested[0];
+            Object instance = plan.newInstance(arguments);
+            long constructed = System.nanoTime();
+            for (int i = 0; i < parameters.length; i++) {
+                if (parameters[i].isVerbose()) {
+                    logInjection(instance, parameters[i], arguments[i]);
+                }
+            }
 
+            for (InjectionPlan.InjectionPoint point : plan.getFields()) {
+                Object dependency = resolve(point);
+                point.set(instance, dependency);
+                if (point.isVerbose()) {
+                    logInjection(instance, point, dependency);
+                }
+            }
+            long injected = System.nanoTime();
+            if (config.isReport()) {
+                report.record(clazz, constructed - start - nestedBeforeConstruction,
+                        injected - constructed - (nested[0] - nestedBeforeConstruction));
+            }
             return instance;
         } finally {
-            beingInstantiated.remove(clazz);
+            nested[0] = outerNested + (System.nanoTime() - start);
+            stack.remove(clazz);
+        }
+    }
+
+    private Object resolve(InjectionPlan.InjectionPoint point) throws Exception {
+        return point.getProvider() != null ? point.getProvider() : instantiate(point.getTarget());
+    }
+
+    private String describeCycle(Set<Class<?>> stack, Class<?> repeated) {
+        StringBuilder cycle = new StringBuilder();
+        boolean inCycle = false;
+        for (Class<?> clazz : stack) {
+            inCycle |= clazz == repeated;
+            if (inCycle) {
+                cycle.append(clazz.getSimpleName()).append(" -> ");
+            }
         }
+        return cycle.append(repeated.getSimpleName()).toString();
+    }
+
+    /**
+     * Registers a generated factory for {@code clazz}; used instead of its reflective constructor.
+     * Must be called before the class is first instantiated.
+     */
+    public void registerFactory(Class<?> clazz, Function<Object[], Object> factory) {
+        factories.put(clazz, factory);
     }
 
-    private Object getControllerInstance(Class<?> controllerClass) throws Exception {
-        return controllerInstances.computeIfAbsent(controllerClass, clazz -> {
+    /**
+     * Builds the singletons that lazy mode deferred. Safe to run on a background thread while
+     * requests are already being served; anything a request built first is simply reused.
+     * Failures are logged and left to surface on first use.
+     */
+    public void warmUp() {
+        for (Class<?> clazz : deferredSingletons) {
             try {
-                Object instance = clazz.getDeclaredConstructor().newInstance();
-                injectDependencies(instance);
-                System.out.println("Created and cached controller instance: " +
-                        clazz.getSimpleName());
-                return instance;
+                instantiate(clazz);
             } catch (Exception e) {
-                throw new DependencyResolutionException("Failed to create controller: " +
-                        clazz.getName());
+                System.out.println("Warm-up of " + clazz.getSimpleName() + " failed: " + e.getMessage());
             }
-        });
+        }
+    }
+
+    public DIConfig getConfig() {
+        return config;
+    }
+
+    public StartupReport getReport() {
+        return report;
+    }
+
+    /**
+     * Publishes every controller and singleton built so far as an immutable registry, so later
+     * lookups from request threads are plain reads of a map that never changes.
+     * Called once startup is finished; anything created afterwards is still found through
+     * the concurrent maps.
+     */
+    public void publish() {
+        Map<Class<?>, Object> all = new HashMap<>(container.getSingletons());
+        all.putAll(controllerInstances);
+        published = Map.copyOf(all);
     }
 
 
-    //  Inject dependencies into an existing instance
-    private void injectDependencies(Object instance) throws Exception {
-        Class<?> clazz = instance.getClass();
-        System.out.println("Injecting dependencies for: " + clazz.getName());
+    private InjectionPlan planFor(Class<?> clazz) {
+        InjectionPlan plan = plans.get(clazz);
+        if (plan == null) {
+            // Provera opsega trazi planove prototype zavisnosti, pa ne sme da ide unutar computeIfAbsent
+            InjectionPlan built = buildPlan(clazz);
+            checkScopes(built);
+            plan = plans.computeIfAbsent(clazz, key -> built);
+        }
+        return plan;
+    }
+
 
-        for (Field field : clazz.getDeclaredFields()) {
-            if (field.isAnnotationPresent(Autowired.class)) {
-                System.out.println("Found @Autowired field: " + field.getName());
-                injectField(instance, field);
+    /**
+     * A controller or singleton lives for the whole run, so it must not hold a request, thread or
+     * pooled bean directly (also not through a prototype it holds): it would keep the first
+     * request's or thread's instance, or a pooled instance after it went back to the pool.
+     * Such dependencies have to be injected through a {@link Provider}.
+     */
+    private void checkScopes(InjectionPlan plan) {
+        InjectionPlan.Kind kind = plan.getKind();
+        if (kind == InjectionPlan.Kind.CONTROLLER || kind == InjectionPlan.Kind.SINGLETON) {
+            checkScopes(plan.getType(), plan, new HashSet<>());
+        }
+    }
+
+    private void checkScopes(Class<?> owner, InjectionPlan plan, Set<Class<?>> visited) {
+        List<InjectionPlan.InjectionPoint> points = new ArrayList<>(Arrays.asList(plan.getConstructorArguments()));
+        points.addAll(Arrays.asList(plan.getFields()));
+        for (InjectionPlan.InjectionPoint point : points) {
+            if (point.getProvider() != null) {
+                continue;
+            }
+            Class<?> target = point.getTarget();
+            InjectionPlan.Kind targetKind = kindOf(target);
+            switch (targetKind) {
+                case REQUEST:
+                case THREAD:
+                case POOLED:
+                    throw new InvalidAutowiredTargetException(point.getName() + " in " + plan.getType().getName() +
+                            " is a " + targetKind.name().toLowerCase(Locale.ROOT) + "-scoped " + target.getName() +
+                            ", but " + owner.getName() + " outlives it; inject it through a Provider");
+                case PROTOTYPE:
+                    if (visited.add(target)) {
+                        checkScopes(owner, planFor(target), visited);
+                    }
+                    break;
+                default:
+                    break;
             }
         }
     }
 
 
-    //  Inject a specific field
-    private void injectField(Object instance, Field field) throws Exception {
-        System.out.println("Injecting field: " + field.getName() + " in " + instance.getClass().getName());
-        Autowired autowired = field.getAnnotation(Autowired.class);
-        Class<?> fieldType = field.getType();
+    //  Resolve constructor, @Autowired fields and their implementation classes once per class
+    private InjectionPlan buildPlan(Class<?> clazz) {
+        if (config.isVerbose()) {
+            System.out.println("Building injection plan for: " + clazz.getName());
+        }
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(clazz, MethodHandles.lookup());
+
+            // @Autowired konstruktor ako postoji, inace konstruktor bez argumenata
+            Constructor<?> autowiredConstructor = autowiredConstructor(clazz);
+            List<InjectionPlan.InjectionPoint> arguments = new ArrayList<>();
+            if (autowiredConstructor != null) {
+                boolean verbose = autowiredConstructor.getAnnotation(Autowired.class).verbose();
+                Parameter[] parameters = autowiredConstructor.getParameters();
+                for (int i = 0; i < parameters.length; i++) {
+                    arguments.add(injectionPoint(clazz, "constructor parameter " + i, parameters[i],
+                            parameters[i].getType(), parameters[i].getParameterizedType(), null, verbose));
+                }
+            }
+            MethodHandle constructor = constructorFor(clazz, autowiredConstructor, lookup);
+
+            List<InjectionPlan.InjectionPoint> fields = new ArrayList<>();
+            for (Field field : clazz.getDeclaredFields()) {
+                Autowired autowired = field.getAnnotation(Autowired.class);
+                if (autowired != null) {
+                    if (config.isVerbose()) {
+                        System.out.println("Found @Autowired field: " + field.getName());
+                    }
+                    if (Modifier.isFinal(field.getModifiers())) {
+                        throw new InvalidAutowiredTargetException("Field " + field.getName() + " in " +
+                                clazz.getName() + " is final; inject it through an @Autowired constructor");
+                    }
+                    MethodHandle setter = lookup.unreflectSetter(field)
+                            .asType(MethodType.methodType(void.class, Object.class, Object.class));
+                    fields.add(injectionPoint(clazz, field.getName(), field, field.getType(), field.getGenericType(),
+                            setter, autowired.verbose()));
+                }
+            }
+
+            InjectionPlan.Kind kind = kindOf(clazz);
+            InstancePool pool = kind == InjectionPlan.Kind.POOLED
+                    ? new InstancePool(clazz.getAnnotation(Bean.class).poolSize())
+                    : null;
+            return new InjectionPlan(clazz, kind, constructor,
+                    arguments.toArray(new InjectionPlan.InjectionPoint[0]),
+                    fields.toArray(new InjectionPlan.InjectionPoint[0]), pool);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new DependencyResolutionException("Cannot build injection plan for " + clazz.getName() +
+                    ": " + e.getMessage(), e);
+        }
+    }
+
+
+    private Constructor<?> autowiredConstructor(Class<?> clazz) {
+        Constructor<?> found = null;
+        for (Constructor<?> constructor : clazz.getDeclaredConstructors()) {
+            if (constructor.isAnnotationPresent(Autowired.class)) {
+                if (found != null) {
+                    throw new DependencyResolutionException("More than one @Autowired constructor in " + clazz.getName());
+                }
+                found = constructor;
+            }
+        }
+        return found;
+    }
+
 
-        // Verify the field type is injectable
-        if (!isInjectableType(fieldType)) {
+    // Generisana fabrika (obican new) ima prednost nad reflektivnim konstruktorom
+    private MethodHandle constructorFor(Class<?> clazz, Constructor<?> autowiredConstructor,
+                                        MethodHandles.Lookup lookup)
+            throws NoSuchMethodException, IllegalAccessException {
+        Function<Object[], Object> factory = factories.get(clazz);
+        if (factory != null) {
+            return FUNCTION_APPLY.bindTo(factory).asType(CONSTRUCTOR_TYPE);
+        }
+        if (autowiredConstructor != null) {
+            return lookup.unreflectConstructor(autowiredConstructor)
+                    .asSpreader(Object[].class, autowiredConstructor.getParameterCount())
+                    .asType(CONSTRUCTOR_TYPE);
+        }
+        // Isti oblik kao @Autowired konstruktor, niz argumenata je prazan i ignorise se
+        MethodHandle constructor = lookup.findConstructor(clazz, MethodType.methodType(void.class));
+        return MethodHandles.dropArguments(constructor.asType(MethodType.methodType(Object.class)), 0, Object[].class);
+    }
+
+
+    private InjectionPlan.InjectionPoint injectionPoint(Class<?> owner, String name, AnnotatedElement element,
+                                                        Class<?> type, Type genericType, MethodHandle setter,
+                                                        boolean verbose) {
+        if (type == Provider.class) {
+            Class<?> target = resolveTarget(owner, name, element, providedType(owner, name, genericType));
+            return new InjectionPlan.InjectionPoint(name, type, target, setter, verbose, providerFor(target));
+        }
+        return new InjectionPlan.InjectionPoint(name, type, resolveTarget(owner, name, element, type),
+                setter, verbose, null);
+    }
+
+
+    // T iz Provider<T>
+    private Class<?> providedType(Class<?> owner, String name, Type type) {
+        if (type instanceof ParameterizedType) {
+            Type argument = ((ParameterizedType) type).getActualTypeArguments()[0];
+            if (argument instanceof Class) {
+                return (Class<?>) argument;
+            }
+        }
+        throw new InvalidAutowiredTargetException(
+                "Provider " + name + " in " + owner.getName() +
+                        " must name a concrete type, e.g. Provider<MyBean>"
+        );
+    }
+
+    private Provider<Object> providerFor(Class<?> target) {
+        return () -> {
+            try {
+                return instantiate(target);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new DependencyResolutionException("Failed to provide " + target.getName(), e);
+            }
+        };
+    }
+
+
+    //  Resolve the class to inject into a field or constructor parameter (or provide through a Provider)
+    private Class<?> resolveTarget(Class<?> owner, String name, AnnotatedElement element, Class<?> type) {
+
+        // Verify the type is injectable
+        if (!isInjectableType(type)) {
             throw new InvalidAutowiredTargetException(
-                    "Field " + field.getName() + " in " + instance.getClass().getName() +
+                    "Field " + name + " in " + owner.getName() +
                             " is not a valid injectable type"
             );
         }
 
         // Get implementation class if it's an interface
-        Class<?> implementationClass = fieldType;
-        if (fieldType.isInterface()) {
-            Qualifier qualifier = field.getAnnotation(Qualifier.class);
+        if (type.isInterface()) {
+            Qualifier qualifier = element.getAnnotation(Qualifier.class);
             if (qualifier == null) {
                 throw new MissingQualifierException(
-                        "Missing @Qualifier for interface field " + field.getName() +
-                                " in " + instance.getClass().getName()
+                        "Missing @Qualifier for interface field " + name +
+                                " in " + owner.getName()
                 );
             }
-            implementationClass = container.getImplementationClass(fieldType, qualifier.value());
+            return container.getImplementationClass(type, resolveQualifier(qualifier.value()));
         }
+        return type;
+    }
 
-        System.out.println("Creating dependency instance of type: " + implementationClass.getName());
-        Object dependency = instantiate(implementationClass);
-
-        field.setAccessible(true);
-        field.set(instance, dependency);
-
-        if (autowired.verbose()) {
-            logInjection(instance, field, dependency);
+    // "${ime.svojstva:podrazumevano}" bira implementaciju preko system property-ja
+    private static String resolveQualifier(String value) {
+        if (!value.startsWith("${") || !value.endsWith("}")) {
+            return value;
+        }
+        String expression = value.substring(2, value.length() - 1);
+        int separator = expression.indexOf(':');
+        if (separator < 0) {
+            String resolved = System.getProperty(expression);
+            if (resolved == null) {
+                throw new MissingQualifierException("System property " + expression + " used in @Qualifier is not set");
+            }
+            return resolved;
         }
+        return System.getProperty(expression.substring(0, separator), expression.substring(separator + 1));
     }
 
 
-    //  Check if a class should be treated as a singleton
-    private boolean isSingleton(Class<?> clazz) {
-        if (clazz.isAnnotationPresent(Controller.class) ||
-                clazz.isAnnotationPresent(Service.class)) {
-            return true;
+    private InjectionPlan.Kind kindOf(Class<?> clazz) {
+        if (clazz.isAnnotationPresent(Controller.class)) {
+            return InjectionPlan.Kind.CONTROLLER;
+        }
+        if (clazz.isAnnotationPresent(Service.class)) {
+            return InjectionPlan.Kind.SINGLETON;
+        }
+        if (!clazz.isAnnotationPresent(Bean.class)) {
+            return InjectionPlan.Kind.PROTOTYPE;
+        }
+
+        String scope = clazz.getAnnotation(Bean.class).scope();
+        switch (scope) {
+            case "singleton":
+                return InjectionPlan.Kind.SINGLETON;
+            case "prototype":
+                return InjectionPlan.Kind.PROTOTYPE;
+            case "request":
+                return InjectionPlan.Kind.REQUEST;
+            case "thread":
+                return InjectionPlan.Kind.THREAD;
+            case "pooled":
+                return InjectionPlan.Kind.POOLED;
+            default:
+                throw new DependencyResolutionException("Unknown scope '" + scope + "' on " + clazz.getName());
         }
-        return isSingletonBean(clazz);
     }
 
 
@@ -217,17 +663,17 @@ public class DIEngine {
 
 
     //  Log injection details when verbose is true
-    private void logInjection(Object instance, Field field, Object dependency) {
+    private void logInjection(Object instance, InjectionPlan.InjectionPoint point, Object dependency) {
         System.out.printf(
                 "Initialized %s %s in %s on %s with %d%n",
-                field.getType().getName(),
-                field.getName(),
+                point.getDeclaredType().getName(),
+                point.getName(),
                 instance.getClass().getName(),
                 LocalDateTime.now(),
                 dependency.hashCode()
         );
     }
     public Object getController(Class<?> controllerClass) throws Exception {
-        return getControllerInstance(controllerClass);
+        return getControllerInstance(planFor(controllerClass));
     }
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ import framework.request.exceptions.DependencyNotFoundException;
 import framework.request.exceptions.DuplicateQualifierException;
 import framework.request.exceptions.MissingQualifierException;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -63,6 +64,10 @@ public class DependencyContainer {
         return singletons.containsKey(clazz);
     }
 
+    public Map<Class<?>, Object> getSingletons() {
+        return Collections.unmodifiableMap(singletons);
+    }
+
 //
 //    public void clear() {
 //        interfaceToImplementation.clear();
@@ -0,0 +1,11 @@
+package framework.di;
+
+/**
+ * When DIEngine builds singletons and controllers.
+ */
+public enum InitializationMode {
+    // Sve se pravi tokom startup-a, pre nego sto server otvori port
+    EAGER,
+    // Pravi se pri prvoj upotrebi, opciono zagrevanje u pozadini kad server krene
+    LAZY
+}
@@ -0,0 +1,126 @@
+package framework.di;
+
+import java.lang.invoke.MethodHandle;
+
+/**
+ * Everything DIEngine needs to build one class, worked out once and cached per class:
+ * the scope, a constructor handle with one {@link InjectionPoint} per constructor parameter,
+ * and one {@link InjectionPoint} per @Autowired field.
+ * Creating an instance from a plan is just handle calls, with no annotation lookups or
+ * reflection.
+ */
+final class InjectionPlan {
+    enum Kind { CONTROLLER, SINGLETON, PROTOTYPE, REQUEST, THREAD, POOLED }
+
+    private static final Object[] NO_ARGUMENTS = new Object[0];
+
+    private final Class<?> type;
+    private final Kind kind;
+    // Tip: (Object[]) -> Object, argumenti redom kao constructorArguments
+    private final MethodHandle constructor;
+    private final InjectionPoint[] constructorArguments;
+    private final InjectionPoint[] fields;
+    // Samo za POOLED
+    private final InstancePool pool;
+
+    InjectionPlan(Class<?> type, Kind kind, MethodHandle constructor, InjectionPoint[] constructorArguments,
+                  InjectionPoint[] fields, InstancePool pool) {
+        this.type = type;
+        this.kind = kind;
+        this.constructor = constructor;
+        this.constructorArguments = constructorArguments;
+        this.fields = fields;
+        this.pool = pool;
+    }
+
+    Class<?> getType() {
+        return type;
+    }
+
+    Kind getKind() {
+        return kind;
+    }
+
+    InjectionPoint[] getConstructorArguments() {
+        return constructorArguments;
+    }
+
+    InjectionPoint[] getFields() {
+        return fields;
+    }
+
+    InstancePool getPool() {
+        return pool;
+    }
+
+    Object[] newArguments() {
+        return constructorArguments.length == 0 ? NO_ARGUMENTS : new Object[constructorArguments.length];
+    }
+
+    Object newInstance(Object[] arguments) throws Exception {
+        try {
+            return constructor.invokeExact(arguments);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * A single dependency: an @Autowired field or a parameter of the @Autowired constructor.
+     * Holds the implementation class to inject (interfaces already resolved through their
+     * qualifier) and, for fields, a setter handle that writes it.
+     * For {@code Provider<T>} dependencies the target is {@code T} and the provider to inject is
+     * built once, with the plan.
+     */
+    static final class InjectionPoint {
+        private final String name;
+        private final Class<?> declaredType;
+        private final Class<?> target;
+        // Tip: (Object, Object) -> void; null za parametre konstruktora
+        private final MethodHandle setter;
+        private final boolean verbose;
+        private final Provider<?> provider;
+
+        InjectionPoint(String name, Class<?> declaredType, Class<?> target, MethodHandle setter, boolean verbose,
+                       Provider<?> provider) {
+            this.name = name;
+            this.declaredType = declaredType;
+            this.target = target;
+            this.setter = setter;
+            this.verbose = verbose;
+            this.provider = provider;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        Class<?> getDeclaredType() {
+            return declaredType;
+        }
+
+        Class<?> getTarget() {
+            return target;
+        }
+
+        Provider<?> getProvider() {
+            return provider;
+        }
+
+        boolean isVerbose() {
+            return verbose;
+        }
+
+        void set(Object instance, Object dependency) throws Exception {
+            try {
+                setter.invokeExact(instance, dependency);
+            } catch (Exception | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
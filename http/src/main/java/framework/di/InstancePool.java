@@ -0,0 +1,34 @@
+package framework.di;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Bounded pool of idle instances for one pooled bean class.
+ * An empty pool means the caller creates a new instance. A full pool means a returned instance
+ * is left to the garbage collector, so the pool never holds more than its size.
+ */
+final class InstancePool {
+    private final ArrayBlockingQueue<Object> idle;
+
+    InstancePool(int size) {
+        this.idle = new ArrayBlockingQueue<>(size);
+    }
+
+    // null ako nema slobodne instance
+    Object borrow() {
+        return idle.poll();
+    }
+
+    void release(Object instance) {
+        if (instance instanceof Poolable) {
+            try {
+                ((Poolable) instance).reset();
+            } catch (RuntimeException e) {
+                System.out.println("Dropping pooled " + instance.getClass().getSimpleName() +
+                        " after failed reset: " + e.getMessage());
+                return;
+            }
+        }
+        idle.offer(instance);
+    }
+}
@@ -0,0 +1,10 @@
+package framework.di;
+
+/**
+ * Optional reset hook for {@code @Bean(scope = "pooled")} beans. Called when the request that
+ * borrowed the instance ends, before the instance goes back to the pool.
+ * If {@link #reset()} throws, the instance is dropped instead of reused.
+ */
+public interface Poolable {
+    void reset();
+}
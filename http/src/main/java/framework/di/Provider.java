@@ -0,0 +1,17 @@
+package framework.di;
+
+/**
+ * Injected in place of a bean when the bean must be looked up on every use instead of once.
+ * Needed to reach request, thread and pooled beans from singletons and controllers:
+ *
+ * <pre>
+ * &#64;Autowired
+ * private Provider&lt;AuditTrail&gt; auditTrail;   // auditTrail.get() inside a handler
+ * </pre>
+ *
+ * Interface types still need a {@code @Qualifier} on the field.
+ */
+@FunctionalInterface
+public interface Provider<T> {
+    T get();
+}
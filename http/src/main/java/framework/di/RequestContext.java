@@ -0,0 +1,53 @@
+package framework.di;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-thread state of the request being handled: request-scoped instances and the pooled
+ * instances borrowed during it. One context per thread, reused from request to request.
+ */
+final class RequestContext {
+    private final Map<Class<?>, Object> instances = new HashMap<>();
+    private final List<InstancePool> pools = new ArrayList<>();
+    private final List<Object> borrowed = new ArrayList<>();
+    private boolean active;
+
+    boolean isActive() {
+        return active;
+    }
+
+    void enter() {
+        active = true;
+    }
+
+    Object get(Class<?> clazz) {
+        return instances.get(clazz);
+    }
+
+    void put(Class<?> clazz, Object instance) {
+        instances.put(clazz, instance);
+    }
+
+    void borrowed(InstancePool pool, Object instance) {
+        pools.add(pool);
+        borrowed.add(instance);
+    }
+
+    // Vraca pozajmljene instance u pool i brise sve sto je vezano za zahtev
+    void exit() {
+        active = false;
+        if (!borrowed.isEmpty()) {
+            for (int i = 0; i < borrowed.size(); i++) {
+                pools.get(i).release(borrowed.get(i));
+            }
+            pools.clear();
+            borrowed.clear();
+        }
+        if (!instances.isEmpty()) {
+            instances.clear();
+        }
+    }
+}
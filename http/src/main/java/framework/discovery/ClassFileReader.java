@@ -0,0 +1,204 @@
+package framework.discovery;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads just enough of a class file to tell which framework annotations are on the class,
+ * without loading it (so no static initializers run).
+ *
+ * Only the constant pool, the access flags and the class-level RuntimeVisibleAnnotations
+ * attribute are looked at; fields and methods are skipped over.
+ */
+final class ClassFileReader {
+    static final int CONTROLLER = 1;
+    static final int SERVICE = 1 << 1;
+    static final int COMPONENT = 1 << 2;
+    static final int BEAN = 1 << 3;
+    static final int QUALIFIER = 1 << 4;
+
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final int ACC_INTERFACE = 0x0200;
+    private static final int ACC_ANNOTATION = 0x2000;
+    private static final int ACC_ENUM = 0x4000;
+    private static final int ACC_MODULE = 0x8000;
+    private static final int SKIPPED = ACC_INTERFACE | ACC_ANNOTATION | ACC_ENUM | ACC_MODULE;
+
+    private final byte[] bytes;
+    private int position;
+    // Pocetak svakog Utf8 zapisa u constant pool-u, po indeksu
+    private int[] utf8Offsets;
+    private int[] classNameIndexes;
+
+    private ClassFileReader(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * Result of reading one class file: its binary name and a mask of the framework annotations
+     * on it (0 if none, or if it's an interface, enum or annotation).
+     */
+    static final class Result {
+        final String className;
+        final int annotations;
+
+        Result(String className, int annotations) {
+            this.className = className;
+            this.annotations = annotations;
+        }
+    }
+
+    static Result read(byte[] bytes) {
+        return new ClassFileReader(bytes).read();
+    }
+
+    private Result read() {
+        if (u4() != MAGIC) {
+            throw new IllegalArgumentException("Not a class file");
+        }
+        position += 4; // minor i major verzija
+        readConstantPool();
+
+        int access = u2();
+        String className = utf8(classNameIndexes[u2()]).replace('/', '.');
+        position += 2; // super klasa
+        int interfaces = u2(); // interfejsi
+        position += 2 * interfaces;
+
+        if ((access & SKIPPED) != 0) {
+            return new Result(className, 0);
+        }
+
+        skipMembers(); // polja
+        skipMembers(); // metode
+
+        int annotations = 0;
+        int attributes = u2();
+        for (int i = 0; i < attributes; i++) {
+            String name = utf8(u2());
+            int length = u4();
+            int end = position + length;
+            if ("RuntimeVisibleAnnotations".equals(name)) {
+                int count = u2();
+                for (int j = 0; j < count; j++) {
+                    annotations |= maskOf(utf8(u2()));
+                    skipElementValuePairs();
+                }
+            }
+            position = end;
+        }
+        return new Result(className, annotations);
+    }
+
+    private void readConstantPool() {
+        int count = u2();
+        utf8Offsets = new int[count];
+        classNameIndexes = new int[count];
+        for (int i = 1; i < count; i++) {
+            int tag = bytes[position++];
+            switch (tag) {
+                case 1: // Utf8
+                    utf8Offsets[i] = position;
+                    position += 2 + u2At(position);
+                    break;
+                case 7: // Class
+                    classNameIndexes[i] = u2();
+                    break;
+                case 8: case 16: case 19: case 20: // String, MethodType, Module, Package
+                    position += 2;
+                    break;
+                case 15: // MethodHandle
+                    position += 3;
+                    break;
+                case 3: case 4: case 9: case 10: case 11: case 12: case 17: case 18:
+                    position += 4;
+                    break;
+                case 5: case 6: // Long i Double zauzimaju dva mesta u pool-u
+                    position += 8;
+                    i++;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown constant pool tag " + tag);
+            }
+        }
+    }
+
+    private void skipMembers() {
+        int count = u2();
+        for (int i = 0; i < count; i++) {
+            position += 6; // access, name, descriptor
+            int attributes = u2();
+            for (int j = 0; j < attributes; j++) {
+                position += 2;
+                int length = u4();
+                position += length;
+            }
+        }
+    }
+
+    private void skipElementValuePairs() {
+        int pairs = u2();
+        for (int i = 0; i < pairs; i++) {
+            position += 2;
+            skipElementValue();
+        }
+    }
+
+    private void skipElementValue() {
+        int tag = bytes[position++];
+        switch (tag) {
+            case 'e':
+                position += 4;
+                break;
+            case '@':
+                position += 2;
+                skipElementValuePairs();
+                break;
+            case '[':
+                int count = u2();
+                for (int i = 0; i < count; i++) {
+                    skipElementValue();
+                }
+                break;
+            default: // konstante i 'c'
+                position += 2;
+        }
+    }
+
+    private static int maskOf(String descriptor) {
+        switch (descriptor) {
+            case "Lframework/annotations/Controller;":
+                return CONTROLLER;
+            case "Lframework/annotations/Service;":
+                return SERVICE;
+            case "Lframework/annotations/Component;":
+                return COMPONENT;
+            case "Lframework/annotations/Bean;":
+                return BEAN;
+            case "Lframework/annotations/Qualifier;":
+                return QUALIFIER;
+            default:
+                return 0;
+        }
+    }
+
+    private String utf8(int index) {
+        int offset = utf8Offsets[index];
+        return new String(bytes, offset + 2, u2At(offset), StandardCharsets.UTF_8);
+    }
+
+    private int u2() {
+        int value = u2At(position);
+        position += 2;
+        return value;
+    }
+
+    private int u2At(int offset) {
+        return ((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF);
+    }
+
+    private int u4() {
+        int value = (u2At(position) << 16) | u2At(position + 2);
+        position += 4;
+        return value;
+    }
+}
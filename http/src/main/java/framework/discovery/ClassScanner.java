@@ -0,0 +1,249 @@
+package framework.discovery;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * Finds annotated classes under a package by reading class files, never by loading them.
+ *
+ * Package roots come from the ClassLoader (directories and jars alike) plus any jar on
+ * {@code java.class.path} that has no directory entries. Class files are parsed with
+ * {@link ClassFileReader} in parallel on the common fork/join pool. Results are kept in a
+ * {@link ScanCache}, so on restart only changed class files and jars are read again.
+ */
+final class ClassScanner {
+    // Ispod ovoliko fajlova zadatak se ne deli dalje
+    private static final int SPLIT_THRESHOLD = 32;
+
+    private final ClassLoader classLoader;
+    private final ScanCache cache;
+
+    ClassScanner(ClassLoader classLoader, ScanCache cache) {
+        this.classLoader = classLoader;
+        this.cache = cache;
+    }
+
+    /**
+     * One class file to parse. {@code group} is the cache key its result is stored under
+     * (the file itself, or the jar and package it belongs to).
+     */
+    private abstract static class Candidate {
+        final String group;
+        ClassFileReader.Result result;
+
+        Candidate(String group) {
+            this.group = group;
+        }
+
+        abstract byte[] read() throws IOException;
+    }
+
+    /**
+     * Scans {@code packageName} and its subpackages.
+     * Returns every class with at least one framework annotation, mapped to its annotation mask
+     * and sorted by name.
+     */
+    Map<String, Integer> scan(String packageName) throws IOException {
+        String prefix = packageName.replace('.', '/') + "/";
+        Map<String, Integer> found = new TreeMap<>();
+        List<Candidate> candidates = new ArrayList<>();
+        Map<String, String> stamps = new HashMap<>();
+        List<JarFile> openJars = new ArrayList<>();
+
+        try {
+            for (Path jar : jarRoots(prefix)) {
+                collectJar(jar, prefix, found, candidates, stamps, openJars);
+            }
+            for (Path directory : directoryRoots(prefix)) {
+                collectDirectory(directory, prefix, found, candidates, stamps);
+            }
+
+            System.out.println("Scan cache: " + found.size() + " annotated classes reused, " +
+                    candidates.size() + " class files to read");
+            if (!candidates.isEmpty()) {
+                ForkJoinPool.commonPool().invoke(new ReadTask(candidates, 0, candidates.size()));
+            }
+        } finally {
+            for (JarFile jar : openJars) {
+                jar.close();
+            }
+        }
+
+        // Rezultati se grupisu po izvoru i pamte u kesu, i oni bez anotacija
+        Map<String, Map<String, Integer>> groups = new HashMap<>();
+        for (Candidate candidate : candidates) {
+            Map<String, Integer> group = groups.computeIfAbsent(candidate.group, key -> new TreeMap<>());
+            if (candidate.result != null && candidate.result.annotations != 0) {
+                group.put(candidate.result.className, candidate.result.annotations);
+                found.put(candidate.result.className, candidate.result.annotations);
+            }
+        }
+        groups.forEach((group, classes) -> cache.put(group, stamps.get(group), classes));
+        cache.save();
+        return found;
+    }
+
+    private Set<Path> directoryRoots(String prefix) throws IOException {
+        Set<Path> roots = new LinkedHashSet<>();
+        Enumeration<URL> resources = classLoader.getResources(prefix);
+        while (resources.hasMoreElements()) {
+            URL url = resources.nextElement();
+            if ("file".equals(url.getProtocol())) {
+                roots.add(toPath(url));
+            }
+        }
+        return roots;
+    }
+
+    private Set<Path> jarRoots(String prefix) throws IOException {
+        Set<Path> roots = new LinkedHashSet<>();
+        Enumeration<URL> resources = classLoader.getResources(prefix);
+        while (resources.hasMoreElements()) {
+            URL url = resources.nextElement();
+            if ("jar".equals(url.getProtocol())) {
+                roots.add(toPath(((JarURLConnection) url.openConnection()).getJarFileURL()));
+            }
+        }
+        // Jar-ovi napravljeni bez stavki za direktorijume se ne vide preko getResources
+        for (String entry : System.getProperty("java.class.path", "").split(File.pathSeparator)) {
+            if (entry.endsWith(".jar") && Files.isRegularFile(Paths.get(entry))) {
+                roots.add(Paths.get(entry).toAbsolutePath().normalize());
+            }
+        }
+        return roots;
+    }
+
+    private void collectJar(Path jarPath, String prefix, Map<String, Integer> found, List<Candidate> candidates,
+                            Map<String, String> stamps, List<JarFile> openJars) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(jarPath, BasicFileAttributes.class);
+        String group = "jar:" + jarPath + "!/" + prefix;
+        String stamp = ScanCache.stamp(attributes.lastModifiedTime().toMillis(), attributes.size());
+
+        Map<String, Integer> cached = cache.get(group, stamp);
+        if (cached != null) {
+            found.putAll(cached);
+            return;
+        }
+
+        JarFile jar = new JarFile(jarPath.toFile());
+        openJars.add(jar);
+        stamps.put(group, stamp);
+        boolean any = false;
+        Enumeration<JarEntry> entries = jar.entries();
+        while (entries.hasMoreElements()) {
+            JarEntry entry = entries.nextElement();
+            if (!entry.isDirectory() && entry.getName().startsWith(prefix) && isClassFile(entry.getName())) {
+                any = true;
+                candidates.add(new Candidate(group) {
+                    @Override
+                    byte[] read() throws IOException {
+                        try (InputStream in = jar.getInputStream(entry)) {
+                            return in.readAllBytes();
+                        }
+                    }
+                });
+            }
+        }
+        if (!any) {
+            cache.put(group, stamp, new TreeMap<>());
+        }
+    }
+
+    private void collectDirectory(Path root, String prefix, Map<String, Integer> found, List<Candidate> candidates,
+                                  Map<String, String> stamps) throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            files.filter(file -> isClassFile(file.getFileName().toString())).forEach(file -> {
+                try {
+                    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                    String group = file.toAbsolutePath().toString();
+                    String stamp = ScanCache.stamp(attributes.lastModifiedTime().toMillis(), attributes.size());
+
+                    Map<String, Integer> cached = cache.get(group, stamp);
+                    if (cached != null) {
+                        found.putAll(cached);
+                        return;
+                    }
+                    stamps.put(group, stamp);
+                    candidates.add(new Candidate(group) {
+                        @Override
+                        byte[] read() throws IOException {
+                            return Files.readAllBytes(file);
+                        }
+                    });
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static boolean isClassFile(String name) {
+        return name.endsWith(".class") && !name.endsWith("module-info.class") && !name.endsWith("package-info.class");
+    }
+
+    private static Path toPath(URL url) throws IOException {
+        try {
+            return Paths.get(url.toURI()).toAbsolutePath().normalize();
+        } catch (URISyntaxException e) {
+            throw new IOException("Unsupported classpath URL: " + url, e);
+        }
+    }
+
+    /**
+     * Reads and parses a slice of the candidate list, splitting it in half until it is small
+     * enough to do directly.
+     */
+    private static final class ReadTask extends RecursiveAction {
+        private final List<Candidate> candidates;
+        private final int from;
+        private final int to;
+
+        ReadTask(List<Candidate> candidates, int from, int to) {
+            this.candidates = candidates;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    Candidate candidate = candidates.get(i);
+                    try {
+                        candidate.result = ClassFileReader.read(candidate.read());
+                    } catch (IOException | RuntimeException e) {
+                        // Fajl koji ne mozemo da procitamo preskacemo, kao i ranije neucitljive klase
+                        System.out.println("Skipping unreadable class file in " + candidate.group + ": " + e.getMessage());
+                    }
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ReadTask(candidates, from, middle), new ReadTask(candidates, middle, to));
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package framework.discovery;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Compile-time list of everything {@link DiscoveryMechanism} would otherwise find by scanning
+ * the classpath: annotated classes, routes and constructor factories.
+ *
+ * Implementations are generated by {@code framework.processor.ComponentIndexProcessor} and
+ * found through {@link java.util.ServiceLoader}, so discovery works the same from a jar as
+ * from {@code target/classes}.
+ */
+public interface ComponentIndex {
+    List<Class<?>> controllers();
+
+    List<Class<?>> services();
+
+    List<Class<?>> components();
+
+    List<Class<?>> beans();
+
+    List<Class<?>> qualified();
+
+    List<RouteDefinition> routes();
+
+    /**
+     * Direct {@code new} calls for every class whose constructor is public: the @Autowired
+     * constructor if there is one (arguments in parameter order), otherwise the no-arg one.
+     * The DI engine uses them instead of a reflective constructor.
+     */
+    Map<Class<?>, Function<Object[], Object>> factories();
+}
@@ -1,14 +1,17 @@
 package framework.discovery;
 
 import framework.annotations.*;
+import com.google.gson.TypeAdapterFactory;
+import framework.di.DIConfig;
 import framework.di.DIEngine;
+import framework.json.JsonCodec;
 import framework.route.RouteHandler;
 //import framework.request.enums.Method;
 import java.lang.reflect.Method;
 import framework.request.exceptions.DependencyResolutionException;
 
-import java.io.File;
-import java.net.URL;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.*;
 
 public class DiscoveryMechanism {
@@ -34,11 +37,15 @@ public class DiscoveryMechanism {
      * Scan packages for annotated classes
      */
     public void scan(String packageName) {
+        long start = System.nanoTime();
         try {
             System.out.println("\n=== Starting Component Discovery ===\n");
 
-            // First scan all classes
-            findAllClasses(packageName);
+            // Generisani indeks ako postoji (radi i iz jar-a), inace skeniranje target/classes
+            List<RouteDefinition> indexedRoutes = loadIndex(packageName);
+            if (indexedRoutes == null) {
+                findAllClasses(packageName);
+            }
 
             // Then initialize dependencies through DIEngine
             System.out.println("\n=== Initializing Dependencies ===\n");
@@ -49,76 +56,176 @@ public class DiscoveryMechanism {
                     qualifiedClasses
             );
 
+            // JSON codec sa type adapterima iz DI-ja, pre nego sto bilo koja ruta moze da se izvrsi
+            configureJson();
+
             // Finally register routes
             System.out.println("\n=== Registering Routes ===\n");
-            processControllers();
+            if (indexedRoutes != null) {
+                registerRoutes(indexedRoutes);
+            } else {
+                processControllers();
+            }
+            routeHandler.linkCaches();
+
+            // Sve je napravljeno, request niti od sada samo citaju
+            diEngine.publish();
+
+            System.out.printf("%nStartup finished in %.1f ms (%s)%n",
+                    (System.nanoTime() - start) / 1_000_000.0, diEngine.getConfig());
+            if (diEngine.getConfig().isReport()) {
+                diEngine.getReport().print("DI Timing Report");
+            }
 
         } catch (Exception e) {
             throw new DependencyResolutionException("Error during scanning: " + e.getMessage());
         }
     }
 
-    private void findAllClasses(String packageName) {
-        try {
-            String projectDir = System.getProperty("user.dir");
-            String targetPath = projectDir + File.separator + "target" + File.separator + "classes" + File.separator
-                    + packageName.replace('.', File.separatorChar);
+    /**
+     * Installs the shared {@link JsonCodec}, with every discovered bean, service or component that
+     * implements Gson's {@link TypeAdapterFactory} registered on it. Adapters are created through
+     * the DI engine, so they can have dependencies of their own.
+     */
+    private void configureJson() throws Exception {
+        List<TypeAdapterFactory> adapterFactories = new ArrayList<>();
+        for (List<Class<?>> classes : List.of(beanClasses, serviceClasses, componentClasses)) {
+            for (Class<?> clazz : classes) {
+                if (TypeAdapterFactory.class.isAssignableFrom(clazz)) {
+                    System.out.println("Registering JSON type adapter factory: " + clazz.getSimpleName());
+                    adapterFactories.add((TypeAdapterFactory) diEngine.instantiate(clazz));
+                }
+            }
+        }
+        JsonCodec codec = JsonCodec.fromSystemProperties(adapterFactories);
+        JsonCodec.install(codec);
+        System.out.println("JSON codec: " + (codec.isPretty() ? "pretty" : "compact") + ", " +
+                adapterFactories.size() + " type adapter factories");
+    }
 
-            System.out.println("Scanning directory: " + targetPath);  // dodaj ovo
+    /**
+     * Called once the server is listening. In lazy mode with {@code di.warmup} enabled, builds the
+     * deferred singletons and route controllers on a background thread, so the first requests
+     * don't pay for them.
+     */
+    public void startWarmup() {
+        DIConfig config = diEngine.getConfig();
+        if (!config.isLazy() || !config.isWarmup()) {
+            return;
+        }
 
-            File targetDir = new File(targetPath);
-            if (targetDir.exists()) {
-                System.out.println("Directory exists, scanning...");  // i ovo
-                scanDirectory(targetDir, packageName);
-            } else {
-                System.out.println("Directory does not exist!");  // i ovo
+        Thread warmup = new Thread(() -> {
+            long start = System.nanoTime();
+            diEngine.warmUp();
+            routeHandler.warmUp();
+            diEngine.publish();
+            System.out.printf("Warm-up finished in %.1f ms%n", (System.nanoTime() - start) / 1_000_000.0);
+            if (config.isReport()) {
+                diEngine.getReport().print("DI Timing Report (after warm-up)");
             }
-        } catch (Exception e) {
-            e.printStackTrace();  // promeni ovo da vidimo pun stack trace
-        }
+        }, "di-warmup");
+        warmup.setDaemon(true);
+        warmup.start();
     }
 
-    private void scanDirectory(File directory, String packageName) {
-        System.out.println("Scanning directory: " + directory.getAbsolutePath());  // dodaj ovo
-        File[] files = directory.listFiles();
-        if (files != null) {
-            for (File file : files) {
-                if (file.isDirectory()) {
-                    scanDirectory(file, packageName + "." + file.getName());
-                } else if (file.getName().endsWith(".class")) {
-                    System.out.println("Found class file: " + file.getName());  // i ovo
-                    processClass(packageName + "." + file.getName().substring(0, file.getName().length() - 6));
+    /**
+     * Loads the compile-time {@link ComponentIndex} instead of scanning the classpath.
+     * Returns the indexed routes in {@code packageName}, or null if no index is available.
+     */
+    private List<RouteDefinition> loadIndex(String packageName) {
+        List<RouteDefinition> indexedRoutes = null;
+        for (ComponentIndex index : ServiceLoader.load(ComponentIndex.class)) {
+            System.out.println("Using component index: " + index.getClass().getName());
+            if (indexedRoutes == null) {
+                indexedRoutes = new ArrayList<>();
+            }
+
+            addInPackage(index.controllers(), packageName, controllerClasses);
+            addInPackage(index.services(), packageName, serviceClasses);
+            addInPackage(index.components(), packageName, componentClasses);
+            addInPackage(index.beans(), packageName, beanClasses);
+            addInPackage(index.qualified(), packageName, qualifiedClasses);
+            for (RouteDefinition route : index.routes()) {
+                if (inPackage(route.getControllerClass(), packageName)) {
+                    indexedRoutes.add(route);
                 }
             }
+            index.factories().forEach(diEngine::registerFactory);
         }
+        return indexedRoutes;
     }
 
-    private void processClass(String className) {
-        try {
-            Class<?> clazz = Class.forName(className);
+    private void addInPackage(List<Class<?>> indexed, String packageName, List<Class<?>> target) {
+        for (Class<?> clazz : indexed) {
+            if (inPackage(clazz, packageName)) {
+                target.add(clazz);
+            }
+        }
+    }
+
+    private boolean inPackage(Class<?> clazz, String packageName) {
+        return clazz.getName().startsWith(packageName + ".");
+    }
 
-            // Skip interfaces, enums, and annotations
-            if (clazz.isInterface() || clazz.isEnum() || clazz.isAnnotation()) {
-                return;
+    private void registerRoutes(List<RouteDefinition> indexedRoutes) {
+        for (RouteDefinition route : indexedRoutes) {
+            System.out.println("Registering " + route.getMethod() + " route: " + route.getPath());
+            try {
+                routeHandler.handleRoutes(route.getPath(), route.getMethod(), route.getControllerClass(),
+                        route.resolve());
+            } catch (NoSuchMethodException e) {
+                throw new DependencyResolutionException("Indexed route method not found: " +
+                        route.getControllerClass().getName() + "." + route.getMethodName(), e);
             }
+        }
+    }
+
+    private void findAllClasses(String packageName) {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        ClassScanner scanner = new ClassScanner(classLoader, ScanCache.load(cacheFile()));
+        try {
+            System.out.println("Scanning package: " + packageName);
+            Map<String, Integer> annotated = scanner.scan(packageName);
+            for (Map.Entry<String, Integer> entry : annotated.entrySet()) {
+                processClass(entry.getKey(), entry.getValue(), classLoader);
+            }
+        } catch (IOException e) {
+            throw new DependencyResolutionException("Failed to scan package " + packageName + ": " + e.getMessage(), e);
+        }
+    }
+
+    // -Ddiscovery.cache=<fajl>, ili "none" da se kes ne koristi. Podrazumevano jedan fajl po
+    // projektu (radni direktorijum + classpath), da projekti ne dele i ne prepisuju isti kes
+    private java.nio.file.Path cacheFile() {
+        String project = System.getProperty("user.dir") + java.io.File.pathSeparator +
+                System.getProperty("java.class.path", "");
+        String location = System.getProperty("discovery.cache", Paths.get(System.getProperty("java.io.tmpdir"),
+                "framework-scan-" + Integer.toHexString(project.hashCode()) + ".cache").toString());
+        return "none".equals(location) ? null : Paths.get(location);
+    }
+
+    private void processClass(String className, int annotations, ClassLoader classLoader) {
+        try {
+            // Bez inicijalizacije - staticki blokovi se izvrsavaju tek kad DI napravi instancu
+            Class<?> clazz = Class.forName(className, false, classLoader);
 
-            if (clazz.isAnnotationPresent(Controller.class)) {
+            if ((annotations & ClassFileReader.CONTROLLER) != 0) {
                 System.out.println("Found Controller: " + className);
                 controllerClasses.add(clazz);
             }
-            if (clazz.isAnnotationPresent(Service.class)) {
+            if ((annotations & ClassFileReader.SERVICE) != 0) {
                 System.out.println("Found Service: " + className);
                 serviceClasses.add(clazz);
             }
-            if (clazz.isAnnotationPresent(Component.class)) {
+            if ((annotations & ClassFileReader.COMPONENT) != 0) {
                 System.out.println("Found Component: " + className);
                 componentClasses.add(clazz);
             }
-            if (clazz.isAnnotationPresent(Bean.class)) {
+            if ((annotations & ClassFileReader.BEAN) != 0) {
                 System.out.println("Found Bean: " + className);
                 beanClasses.add(clazz);
             }
-            if (clazz.isAnnotationPresent(Qualifier.class)) {
+            if ((annotations & ClassFileReader.QUALIFIER) != 0) {
                 System.out.println("Found Qualified class: " + className);
                 qualifiedClasses.add(clazz);
             }
@@ -0,0 +1,43 @@
+package framework.discovery;
+
+import framework.request.enums.Method;
+
+/**
+ * A controller route as recorded in a generated {@link ComponentIndex}.
+ */
+public class RouteDefinition {
+    private final Method method;
+    private final String path;
+    private final Class<?> controllerClass;
+    private final String methodName;
+    private final Class<?>[] parameterTypes;
+
+    public RouteDefinition(Method method, String path, Class<?> controllerClass, String methodName,
+                           Class<?>... parameterTypes) {
+        this.method = method;
+        this.path = path;
+        this.controllerClass = controllerClass;
+        this.methodName = methodName;
+        this.parameterTypes = parameterTypes;
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public Class<?> getControllerClass() {
+        return controllerClass;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public java.lang.reflect.Method resolve() throws NoSuchMethodException {
+        return controllerClass.getDeclaredMethod(methodName, parameterTypes);
+    }
+}
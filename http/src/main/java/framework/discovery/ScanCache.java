@@ -0,0 +1,173 @@
+package framework.discovery;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Scan results kept between restarts, so unchanged class files and jars don't have to be read
+ * again.
+ *
+ * Each entry is keyed by a source (a class file, or a package inside a jar) and stamped with
+ * its last-modified time and size. An entry is only used if the stamp still matches.
+ * Stored as a tab-separated text file, one source per line:
+ * {@code key \t stamp \t className=mask,className=mask}.
+ *
+ * On save, entries whose class file or jar no longer exists are dropped, and if the cache is
+ * still over {@link #MAX_ENTRIES} only the entries used by this run are kept.
+ */
+final class ScanCache {
+    // 2: apstraktne klase se vise ne preskacu, stare maske ne vaze
+    private static final int VERSION = 2;
+    private static final int MAX_ENTRIES = 100_000;
+
+    private final Path file;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Set<String> used = ConcurrentHashMap.newKeySet();
+    private volatile boolean dirty;
+
+    private static final class Entry {
+        final String stamp;
+        final Map<String, Integer> classes;
+
+        Entry(String stamp, Map<String, Integer> classes) {
+            this.stamp = stamp;
+            this.classes = classes;
+        }
+    }
+
+    private ScanCache(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Loads the cache from {@code file}; a missing or unreadable file just gives an empty cache.
+     * A null file gives a cache that is never saved.
+     */
+    static ScanCache load(Path file) {
+        ScanCache cache = new ScanCache(file);
+        if (file == null || !Files.isRegularFile(file)) {
+            return cache;
+        }
+
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            if (!("v" + VERSION).equals(in.readLine())) {
+                return cache;
+            }
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] parts = line.split("\t", -1);
+                if (parts.length != 3) {
+                    continue;
+                }
+                Map<String, Integer> classes = new LinkedHashMap<>();
+                if (!parts[2].isEmpty()) {
+                    for (String item : parts[2].split(",")) {
+                        int separator = item.lastIndexOf('=');
+                        classes.put(item.substring(0, separator), Integer.parseInt(item.substring(separator + 1)));
+                    }
+                }
+                cache.entries.put(parts[0], new Entry(parts[1], classes));
+            }
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Ignoring unreadable scan cache " + file + ": " + e.getMessage());
+            cache.entries.clear();
+        }
+        return cache;
+    }
+
+    static String stamp(long lastModified, long size) {
+        return lastModified + ":" + size;
+    }
+
+    /**
+     * Cached classes for {@code key} (class name to annotation mask), or null if there is no entry
+     * or the source changed since it was stored.
+     */
+    Map<String, Integer> get(String key, String stamp) {
+        Entry entry = entries.get(key);
+        if (entry == null || !entry.stamp.equals(stamp)) {
+            return null;
+        }
+        used.add(key);
+        return entry.classes;
+    }
+
+    void put(String key, String stamp, Map<String, Integer> classes) {
+        entries.put(key, new Entry(stamp, Collections.unmodifiableMap(classes)));
+        used.add(key);
+        dirty = true;
+    }
+
+    private void prune() {
+        entries.keySet().removeIf(key -> !used.contains(key) && !sourceExists(key));
+        if (entries.size() > MAX_ENTRIES) {
+            entries.keySet().retainAll(used);
+        }
+    }
+
+    // Kljuc je putanja class fajla ili "jar:<putanja>!/<paket>"
+    private static boolean sourceExists(String key) {
+        String path = key;
+        if (key.startsWith("jar:")) {
+            int separator = key.lastIndexOf("!/");
+            path = key.substring("jar:".length(), separator < 0 ? key.length() : separator);
+        }
+        try {
+            return Files.exists(Paths.get(path));
+        } catch (InvalidPathException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes the cache back if anything changed. Written to a temporary file first and moved into
+     * place, so a concurrent reader never sees half a file.
+     */
+    void save() {
+        if (file == null || !dirty) {
+            return;
+        }
+        prune();
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Path temporary = Files.createTempFile(file.toAbsolutePath().getParent(), "scan", ".tmp");
+            try (BufferedWriter out = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                out.write("v" + VERSION);
+                out.newLine();
+                for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                    out.write(entry.getKey());
+                    out.write('\t');
+                    out.write(entry.getValue().stamp);
+                    out.write('\t');
+                    boolean first = true;
+                    for (Map.Entry<String, Integer> scanned : entry.getValue().classes.entrySet()) {
+                        if (!first) {
+                            out.write(',');
+                        }
+                        out.write(scanned.getKey() + "=" + scanned.getValue());
+                        first = false;
+                    }
+                    out.newLine();
+                }
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            dirty = false;
+        } catch (IOException e) {
+            System.out.println("Could not save scan cache " + file + ": " + e.getMessage());
+        }
+    }
+}
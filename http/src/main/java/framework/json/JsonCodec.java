@@ -0,0 +1,74 @@
+package framework.json;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapterFactory;
+
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The framework's single JSON codec, shared by request parsing and {@code JsonResponse}.
+ *
+ * Wraps one Gson instance, which is thread-safe and keeps its type adapter cache between calls,
+ * so nothing Gson-related is built per request. Output is compact unless {@code json.pretty}
+ * is set (meant for development). Discovery installs a codec with the application's
+ * {@link TypeAdapterFactory} beans registered; until then a codec without them is used.
+ */
+public final class JsonCodec {
+    private static volatile JsonCodec shared = fromSystemProperties(Collections.emptyList());
+
+    private final Gson gson;
+    private final boolean pretty;
+
+    public JsonCodec(boolean pretty, List<TypeAdapterFactory> adapterFactories) {
+        GsonBuilder builder = new GsonBuilder();
+        if (pretty) {
+            builder.setPrettyPrinting();
+        }
+        for (TypeAdapterFactory factory : adapterFactories) {
+            builder.registerTypeAdapterFactory(factory);
+        }
+        this.gson = builder.create();
+        this.pretty = pretty;
+    }
+
+    /**
+     * Supported properties: json.pretty (pretty-printed responses, for development)
+     */
+    public static JsonCodec fromSystemProperties(List<TypeAdapterFactory> adapterFactories) {
+        return new JsonCodec(Boolean.getBoolean("json.pretty"), adapterFactories);
+    }
+
+    public static JsonCodec shared() {
+        return shared;
+    }
+
+    /**
+     * Replaces the shared codec. Called once during startup, before requests are served.
+     */
+    public static void install(JsonCodec codec) {
+        shared = codec;
+    }
+
+    public Gson gson() {
+        return gson;
+    }
+
+    public boolean isPretty() {
+        return pretty;
+    }
+
+    public String toJson(Object value) {
+        return gson.toJson(value);
+    }
+
+    public void toJson(Object value, Appendable out) {
+        gson.toJson(value, out);
+    }
+
+    public <T> T fromJson(String json, Type type) {
+        return gson.fromJson(json, type);
+    }
+}
@@ -0,0 +1,316 @@
+package framework.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Generates {@code framework.generated.GeneratedComponentIndex} at compile time, together with
+ * the {@code META-INF/services} entry that lets {@code DiscoveryMechanism} load it.
+ *
+ * The index lists the same classes and routes that the runtime scan finds, plus constructor
+ * references for classes that can be created with a plain {@code new}.
+ *
+ * Annotations are referenced by name, so the processor can be compiled before the rest of
+ * the framework (see the {@code compile-processor} execution in the pom).
+ */
+public class ComponentIndexProcessor extends AbstractProcessor {
+    private static final String ANNOTATIONS = "framework.annotations.";
+    private static final String INDEX_PACKAGE = "framework.generated";
+    private static final String INDEX_CLASS = "GeneratedComponentIndex";
+    private static final String SERVICE_FILE = "META-INF/services/framework.discovery.ComponentIndex";
+
+    private final Set<String> controllers = new TreeSet<>();
+    private final Set<String> services = new TreeSet<>();
+    private final Set<String> components = new TreeSet<>();
+    private final Set<String> beans = new TreeSet<>();
+    private final Set<String> qualified = new TreeSet<>();
+    // Klasa -> izraz koji pravi instancu iz niza argumenata
+    private final TreeMap<String, String> factories = new TreeMap<>();
+    // Kljuc je "klasa#metoda(parametri)" da bi redosled ruta bio stabilan izmedju build-ova
+    private final TreeMap<String, String> routes = new TreeMap<>();
+    private boolean generated;
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Set.of(ANNOTATIONS + "Controller", ANNOTATIONS + "Service", ANNOTATIONS + "Component",
+                ANNOTATIONS + "Bean", ANNOTATIONS + "Qualifier", ANNOTATIONS + "Path");
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            String name = annotation.getQualifiedName().toString();
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (name.equals(ANNOTATIONS + "Path")) {
+                    collectRoute(element);
+                } else if (isIndexedClass(element)) {
+                    collectType(name, (TypeElement) element);
+                }
+            }
+        }
+
+        // Index se pise odmah u prvoj rundi u kojoj ima sta da se upise, ne u poslednjoj
+        if (!generated && !roundEnv.processingOver() && !annotations.isEmpty()) {
+            generated = true;
+            writeIndex();
+        }
+        return false;
+    }
+
+    private void collectType(String annotation, TypeElement type) {
+        String className = type.getQualifiedName().toString();
+        switch (annotation.substring(ANNOTATIONS.length())) {
+            case "Controller":
+                controllers.add(className);
+                break;
+            case "Service":
+                services.add(className);
+                break;
+            case "Component":
+                components.add(className);
+                break;
+            case "Bean":
+                beans.add(className);
+                break;
+            case "Qualifier":
+                qualified.add(className);
+                break;
+            default:
+                return;
+        }
+        String factory = factory(type);
+        if (factory != null) {
+            factories.put(className, factory);
+        }
+    }
+
+    private void collectRoute(Element element) {
+        if (element.getKind() != ElementKind.METHOD) {
+            return;
+        }
+        ExecutableElement method = (ExecutableElement) element;
+        String httpMethod = hasAnnotation(method, "GET") ? "GET" : hasAnnotation(method, "POST") ? "POST" : null;
+        if (httpMethod == null) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "@Path method has neither @GET nor @POST and will not be routed", method);
+            return;
+        }
+
+        TypeElement controller = (TypeElement) method.getEnclosingElement();
+        String path = method.getAnnotationMirrors().stream()
+                .filter(mirror -> isAnnotation(mirror, "Path"))
+                .flatMap(mirror -> mirror.getElementValues().values().stream())
+                .map(value -> (String) value.getValue())
+                .findFirst()
+                .orElse("");
+
+        StringBuilder parameters = new StringBuilder();
+        for (VariableElement parameter : method.getParameters()) {
+            // Isto pravilo kao RouteInvokers, ali vec pri kompajliranju
+            if (!parameter.asType().toString().equals("framework.request.Request") && !hasAnnotation(parameter, "Body")) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "Route method parameter must be a Request or annotated with @Body", parameter);
+            }
+            parameters.append(", ")
+                    .append(processingEnv.getTypeUtils().erasure(parameter.asType()))
+                    .append(".class");
+        }
+
+        String controllerName = controller.getQualifiedName().toString();
+        routes.put(controllerName + "#" + method.getSimpleName() + "(" + parameters + ")",
+                "new RouteDefinition(Method." + httpMethod + ", " + literal(path) + ", " +
+                        controllerName + ".class, " + literal(method.getSimpleName().toString()) +
+                        parameters + ")");
+    }
+
+    private void writeIndex() {
+        Filer filer = processingEnv.getFiler();
+        try (Writer out = filer.createSourceFile(INDEX_PACKAGE + "." + INDEX_CLASS).openWriter()) {
+            out.write(source());
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Cannot write component index: " + e);
+            return;
+        }
+
+        try (Writer out = filer.createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE).openWriter()) {
+            out.write(INDEX_PACKAGE + "." + INDEX_CLASS + "\n");
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Cannot write " + SERVICE_FILE + ": " + e);
+        }
+    }
+
+    private String source() {
+        StringBuilder out = new StringBuilder();
+        out.append("package ").append(INDEX_PACKAGE).append(";\n\n")
+                .append("import framework.discovery.ComponentIndex;\n")
+                .append("import framework.discovery.RouteDefinition;\n")
+                .append("import framework.request.enums.Method;\n\n")
+                .append("import java.util.List;\n")
+                .append("import java.util.Map;\n")
+                .append("import java.util.function.Function;\n\n")
+                .append("/**\n * Generated by ").append(getClass().getName()).append(". Do not edit.\n */\n")
+                .append("public final class ").append(INDEX_CLASS).append(" implements ComponentIndex {\n");
+
+        classList(out, "controllers", controllers);
+        classList(out, "services", services);
+        classList(out, "components", components);
+        classList(out, "beans", beans);
+        classList(out, "qualified", qualified);
+
+        out.append("    @Override\n    public List<RouteDefinition> routes() {\n        return List.of(");
+        List<String> routeDefinitions = new ArrayList<>();
+        for (Map.Entry<String, String> route : routes.entrySet()) {
+            // Kao i skeniranje, rute se uzimaju samo iz @Controller klasa
+            if (controllers.contains(route.getKey().substring(0, route.getKey().indexOf('#')))) {
+                routeDefinitions.add(route.getValue());
+            }
+        }
+        appendAll(out, routeDefinitions);
+        out.append(");\n    }\n\n");
+
+        out.append("    @Override\n")
+                .append("    public Map<Class<?>, Function<Object[], Object>> factories() {\n")
+                .append("        return Map.ofEntries(");
+        List<String> entries = new ArrayList<>();
+        for (Map.Entry<String, String> factory : factories.entrySet()) {
+            entries.add("factory(" + factory.getKey() + ".class, args -> " + factory.getValue() + ")");
+        }
+        appendAll(out, entries);
+        out.append(");\n    }\n\n");
+
+        out.append("    private static Map.Entry<Class<?>, Function<Object[], Object>> factory(Class<?> type,\n")
+                .append("                                                                     Function<Object[], Object> factory) {\n")
+                .append("        return Map.entry(type, factory);\n")
+                .append("    }\n")
+                .append("}\n");
+        return out.toString();
+    }
+
+    private void classList(StringBuilder out, String name, Set<String> classNames) {
+        List<String> literals = new ArrayList<>();
+        for (String className : classNames) {
+            literals.add(className + ".class");
+        }
+        out.append("    @Override\n    public List<Class<?>> ").append(name).append("() {\n        return List.of(");
+        appendAll(out, literals);
+        out.append(");\n    }\n\n");
+    }
+
+    private void appendAll(StringBuilder out, List<String> items) {
+        for (int i = 0; i < items.size(); i++) {
+            out.append(i == 0 ? "\n                " : ",\n                ").append(items.get(i));
+        }
+    }
+
+    // Isto sto propusta i skeniranje: sve klase osim enum-a (interfejsi i anotacije nisu klase)
+    private boolean isIndexedClass(Element element) {
+        return element.getKind().isClass() && element.getKind() != ElementKind.ENUM;
+    }
+
+    // Izraz "new X(...)" za public klase (top-level ili static nested) sa public konstruktorom;
+    // @Autowired konstruktor ima prednost, inace konstruktor bez argumenata. null ako ne moze.
+    private String factory(TypeElement type) {
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+            return null;
+        }
+        for (Element current = type; current instanceof TypeElement; current = current.getEnclosingElement()) {
+            TypeElement enclosing = (TypeElement) current;
+            if (!enclosing.getModifiers().contains(Modifier.PUBLIC)) {
+                return null;
+            }
+            if (enclosing.getNestingKind() == NestingKind.MEMBER && !enclosing.getModifiers().contains(Modifier.STATIC)) {
+                return null;
+            }
+        }
+
+        ExecutableElement chosen = null;
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (hasAnnotation(constructor, "Autowired")) {
+                chosen = constructor;
+                break;
+            }
+            if (constructor.getParameters().isEmpty()) {
+                chosen = constructor;
+            }
+        }
+        if (chosen == null || !chosen.getModifiers().contains(Modifier.PUBLIC)) {
+            return null;
+        }
+
+        StringBuilder expression = new StringBuilder("new ").append(type.getQualifiedName()).append('(');
+        List<? extends VariableElement> parameters = chosen.getParameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            if (i > 0) {
+                expression.append(", ");
+            }
+            expression.append('(').append(processingEnv.getTypeUtils().erasure(parameters.get(i).asType()))
+                    .append(") args[").append(i).append(']');
+        }
+        return expression.append(')').toString();
+    }
+
+    private boolean hasAnnotation(Element element, String simpleName) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (isAnnotation(mirror, simpleName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isAnnotation(AnnotationMirror mirror, String simpleName) {
+        TypeElement type = (TypeElement) mirror.getAnnotationType().asElement();
+        return type.getQualifiedName().contentEquals(ANNOTATIONS + simpleName);
+    }
+
+    private String literal(String value) {
+        StringBuilder literal = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    literal.append("\\\"");
+                    break;
+                case '\\':
+                    literal.append("\\\\");
+                    break;
+                case '\n':
+                    literal.append("\\n");
+                    break;
+                default:
+                    if (c < 0x20 || c > 0x7e) {
+                        literal.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        literal.append(c);
+                    }
+            }
+        }
+        return literal.append('"').toString();
+    }
+}
@@ -0,0 +1,72 @@
+package framework.request;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Read-only {@link CharSequence} over ASCII bytes of a received request. Used for the request
+ * target and header values so nothing is decoded until a String is actually needed.
+ */
+public final class AsciiView implements CharSequence {
+    private final byte[] data;
+    private final int offset;
+    private final int length;
+    private String string;
+
+    AsciiView(byte[] data, int offset, int length) {
+        this.data = data;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * View over an existing String, for requests that were not parsed from bytes.
+     */
+    public static AsciiView of(String value) {
+        AsciiView view = new AsciiView(value.getBytes(StandardCharsets.ISO_8859_1), 0, value.length());
+        view.string = value;
+        return view;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return (char) (data[offset + index] & 0xff);
+    }
+
+    public int indexOf(char c) {
+        for (int i = 0; i < length; i++) {
+            if (data[offset + i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public AsciiView subSequence(int start, int end) {
+        return new AsciiView(data, offset + start, end - start);
+    }
+
+    /**
+     * Materializes (and caches) the String.
+     */
+    @Override
+    public String toString() {
+        if (string == null) {
+            string = new String(data, offset, length, StandardCharsets.ISO_8859_1);
+        }
+        return string;
+    }
+
+    byte[] array() {
+        return data;
+    }
+
+    int offset() {
+        return offset;
+    }
+}
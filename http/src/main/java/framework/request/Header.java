@@ -1,20 +1,21 @@
 package framework.request;
 
-import java.util.HashMap;
 import java.util.Set;
+import java.util.TreeMap;
 
 /**
  * Class represent one header element.
  */
 public class Header {
 
-    protected HashMap<String, String> headers;
+    protected TreeMap<String, String> headers;
 
     /**
      * Construct header with given parameters.
+     * Header names are case-insensitive, as in HTTP.
      */
     public Header() {
-        this.headers = new HashMap<String, String>();
+        this.headers = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
     }
 
     /**
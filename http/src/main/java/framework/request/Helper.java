@@ -1,27 +1,141 @@
 package framework.request;
 
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import framework.request.exceptions.MalformedBodyException;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.Map;
 
 public class Helper {
 
     public static HashMap<String, String> getParametersFromRoute(String route) {
-        String[] splittedRoute = route.split("\\?");
-
-        if(splittedRoute.length == 1) {
-            return new HashMap<String, String>();
+        HashMap<String, String> parameters = new HashMap<String, String>();
+        int query = route.indexOf('?');
+        if (query >= 0) {
+            addParameters(route, query + 1, route.length(), parameters);
         }
-
-        return Helper.getParametersFromString(splittedRoute[1]);
+        return parameters;
     }
 
     public static HashMap<String, String> getParametersFromString(String parametersString) {
         HashMap<String, String> parameters = new HashMap<String, String>();
-        String[] pairs = parametersString.split("&");
-        for (String pair:pairs) {
-            String[] keyPair = pair.split("=");
-            parameters.put(keyPair[0], keyPair[1]);
+        addParameters(parametersString, 0, parametersString.length(), parameters);
+        return parameters;
+    }
+
+    /**
+     * Parses url-encoded {@code key=value&key=value} pairs from {@code [start, end)} of the source
+     * without splitting or regular expressions. A key without {@code =} gets an empty value.
+     */
+    static void addParameters(CharSequence source, int start, int end, Map<String, String> parameters) {
+        int pairStart = start;
+        while (pairStart < end) {
+            int pairEnd = indexOf(source, '&', pairStart, end);
+            if (pairEnd > pairStart) {
+                int separator = indexOf(source, '=', pairStart, pairEnd);
+                if (separator == pairEnd) {
+                    parameters.put(decode(source, pairStart, pairEnd), "");
+                } else {
+                    parameters.put(decode(source, pairStart, separator), decode(source, separator + 1, pairEnd));
+                }
+            }
+            pairStart = pairEnd + 1;
         }
+    }
 
-        return parameters;
+    private static int indexOf(CharSequence source, char c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (source.charAt(i) == c) {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    /**
+     * Percent-decodes one query or form component ({@code +} is a space). Bytes from the wire
+     * are treated as UTF-8.
+     */
+    private static String decode(CharSequence source, int start, int end) {
+        return decode(source, start, end, true);
+    }
+
+    /**
+     * Percent-decodes one path segment. Unlike in a query, {@code +} in a path is a plain plus.
+     */
+    static String decodePathSegment(CharSequence source, int start, int end) {
+        return decode(source, start, end, false);
+    }
+
+    private static String decode(CharSequence source, int start, int end, boolean plusIsSpace) {
+        boolean encoded = false;
+        for (int i = start; i < end; i++) {
+            char c = source.charAt(i);
+            if (c == '%' || (c == '+' && plusIsSpace) || c > 0x7f) {
+                encoded = true;
+                break;
+            }
+        }
+        if (!encoded) {
+            return source.subSequence(start, end).toString();
+        }
+        if (source instanceof String) {
+            String component = ((String) source).substring(start, end);
+            try {
+                // URLDecoder uvek pretvara + u razmak, pa ga u putanji prvo zastitimo
+                return URLDecoder.decode(plusIsSpace ? component : component.replace("+", "%2B"),
+                        StandardCharsets.UTF_8);
+            } catch (IllegalArgumentException e) {
+                return component;
+            }
+        }
+
+        byte[] bytes = new byte[end - start];
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            char c = source.charAt(i);
+            if (c == '+' && plusIsSpace) {
+                bytes[length++] = ' ';
+            } else if (c == '%' && i + 2 < end && Character.digit(source.charAt(i + 1), 16) >= 0
+                    && Character.digit(source.charAt(i + 2), 16) >= 0) {
+                bytes[length++] = (byte) ((Character.digit(source.charAt(i + 1), 16) << 4)
+                        | Character.digit(source.charAt(i + 2), 16));
+                i += 2;
+            } else {
+                bytes[length++] = (byte) c;
+            }
+        }
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parses a POST body (JSON object or url-encoded form) into request parameters.
+     * Works on the received bytes: a form body is decoded in place and a JSON body is read as a
+     * stream, so the body is never copied into a String.
+     */
+    static void addBodyParameters(String contentType, byte[] data, int offset, int length,
+                                  Map<String, String> parameters, Gson gson) {
+        if (contentType != null && contentType.contains("application/json")) {
+            try {
+                JsonObject json = gson.fromJson(new InputStreamReader(
+                        new ByteArrayInputStream(data, offset, length), StandardCharsets.UTF_8), JsonObject.class);
+                for (Map.Entry<String, JsonElement> entry : json.entrySet()) {
+                    JsonElement value = entry.getValue();
+                    // Brojevi ostaju onakvi kakvi su poslati, bez prolaska kroz double
+                    parameters.put(entry.getKey(), value.isJsonPrimitive() ? value.getAsString() : value.toString());
+                }
+            } catch (RuntimeException e) {
+                throw new MalformedBodyException("Invalid JSON body: " + e.getMessage(), e);
+            }
+        }
+        else {
+            addParameters(new AsciiView(data, offset, length), 0, length, parameters);
+        }
     }
 }
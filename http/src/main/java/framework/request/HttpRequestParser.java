@@ -0,0 +1,281 @@
+package framework.request;
+
+import com.google.gson.Gson;
+import framework.json.JsonCodec;
+import framework.request.enums.Method;
+import framework.request.exceptions.RequestNotValidException;
+import framework.request.exceptions.UnsupportedTransferEncodingException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Byte-level HTTP/1.x request parser, one per connection. It works directly on a
+ * {@link RequestBuffer}: the request line and headers are located by offsets and exposed as
+ * lazy views, and the body is taken as exactly {@code Content-Length} bytes.
+ *
+ * Requests with {@code Transfer-Encoding} or with conflicting {@code Content-Length} headers are
+ * rejected: the body length would be ambiguous, and on a persistent connection the body could be
+ * read as the next request.
+ *
+ * {@link #parse(RequestBuffer)} can be called repeatedly as bytes arrive; it returns
+ * {@code null} until a complete request is buffered, and remembers how far it already
+ * scanned so no byte is looked at twice.
+ */
+public class HttpRequestParser {
+    public static final int MAX_HEAD_BYTES = 16 * 1024;
+    public static final int MAX_BODY_BYTES = 1024 * 1024;
+
+    private static final Method[] METHODS = Method.values();
+    private static final byte[][] METHOD_NAMES = new byte[METHODS.length][];
+    private static final String HTTP_1_1 = "HTTP/1.1";
+    private static final String HTTP_1_0 = "HTTP/1.0";
+
+    static {
+        for (int i = 0; i < METHODS.length; i++) {
+            METHOD_NAMES[i] = METHODS[i].name().getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    private final Gson gson;
+
+    // Svi offseti su relativni u odnosu na pocetak zahteva u baferu, jer bafer moze da se
+    // poveca (i preseli) dok cekamo ostatak body-ja
+    private int scanned;
+    private int headLength = -1;
+    private Method method;
+    private int targetStart;
+    private int targetEnd;
+    private String version;
+    private int[] headerOffsets = new int[64];
+    private int headerCount;
+    private int contentLength;
+
+    public HttpRequestParser(Gson gson) {
+        this.gson = gson;
+    }
+
+    // Deljeni JSON codec framework-a
+    public HttpRequestParser() {
+        this(JsonCodec.shared().gson());
+    }
+
+    /**
+     * @return the next complete request, or {@code null} if more bytes have to be read first
+     */
+    public Request parse(RequestBuffer buffer) throws RequestNotValidException {
+        byte[] data = buffer.array();
+        int base = buffer.start();
+        int available = buffer.readable();
+
+        if (headLength < 0) {
+            headLength = findHeadEnd(data, base, available);
+            if (headLength < 0) {
+                if (available > MAX_HEAD_BYTES) {
+                    reset();
+                    throw new RequestNotValidException("Request head exceeds " + MAX_HEAD_BYTES + " bytes");
+                }
+                return null;
+            }
+            try {
+                parseHead(data, base);
+            } catch (RequestNotValidException e) {
+                reset();
+                throw e;
+            }
+        }
+
+        if (available - headLength < contentLength) {
+            return null;
+        }
+
+        Request request = buildRequest(data, base);
+        buffer.advance(headLength + contentLength);
+        reset();
+        return request;
+    }
+
+    private int findHeadEnd(byte[] data, int base, int available) {
+        for (int i = Math.max(0, scanned - 3); i + 3 < available; i++) {
+            int p = base + i;
+            if (data[p] == '\r' && data[p + 1] == '\n' && data[p + 2] == '\r' && data[p + 3] == '\n') {
+                return i + 4;
+            }
+        }
+        scanned = available;
+        return -1;
+    }
+
+    private void parseHead(byte[] data, int base) throws RequestNotValidException {
+        int end = headLength - 4;
+        int lineEnd = indexOf(data, base, 0, end, (byte) '\r');
+
+        // Request line: METHOD SP target SP version
+        int firstSpace = indexOf(data, base, 0, lineEnd, (byte) ' ');
+        if (firstSpace == lineEnd) {
+            throw invalid(data, base, lineEnd);
+        }
+        method = matchMethod(data, base, firstSpace);
+        if (method == null) {
+            throw invalid(data, base, lineEnd);
+        }
+        targetStart = firstSpace + 1;
+        targetEnd = indexOf(data, base, targetStart, lineEnd, (byte) ' ');
+        if (targetEnd == targetStart) {
+            throw invalid(data, base, lineEnd);
+        }
+        version = targetEnd == lineEnd ? HTTP_1_0 : matchVersion(data, base + targetEnd + 1, lineEnd - targetEnd - 1);
+
+        headerCount = 0;
+        contentLength = 0;
+        boolean hasContentLength = false;
+        int lineStart = lineEnd + 2;
+        while (lineStart < end) {
+            lineEnd = indexOf(data, base, lineStart, end, (byte) '\r');
+            int colon = indexOf(data, base, lineStart, lineEnd, (byte) ':');
+            if (colon < lineEnd && colon > lineStart) {
+                int valueStart = colon + 1;
+                while (valueStart < lineEnd && (data[base + valueStart] == ' ' || data[base + valueStart] == '\t')) {
+                    valueStart++;
+                }
+                int valueEnd = lineEnd;
+                while (valueEnd > valueStart && (data[base + valueEnd - 1] == ' ' || data[base + valueEnd - 1] == '\t')) {
+                    valueEnd--;
+                }
+                addHeader(lineStart, colon, valueStart, valueEnd);
+
+                if (nameEquals(data, base + lineStart, colon - lineStart, "content-length")) {
+                    int length = parseContentLength(data, base + valueStart, base + valueEnd);
+                    if (hasContentLength && length != contentLength) {
+                        throw new RequestNotValidException("Conflicting Content-Length headers");
+                    }
+                    contentLength = length;
+                    hasContentLength = true;
+                } else if (nameEquals(data, base + lineStart, colon - lineStart, "transfer-encoding")) {
+                    // Chunked body ne citamo; bez ovoga bi njegovi delovi bili procitani kao sledeci zahtev
+                    throw new UnsupportedTransferEncodingException(
+                            new String(data, base + valueStart, valueEnd - valueStart, StandardCharsets.ISO_8859_1));
+                }
+            }
+            lineStart = lineEnd + 2;
+        }
+    }
+
+    private Request buildRequest(byte[] data, int base) {
+        int[] offsets = Arrays.copyOf(headerOffsets, headerCount * 4);
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] += base;
+        }
+        Header header = new ParsedHeader(data, offsets, headerCount);
+        AsciiView target = new AsciiView(data, base + targetStart, targetEnd - targetStart);
+        Request request = new Request(method, target, version, header);
+
+        if (contentLength > 0) {
+            // Body ostaje u baferu dok se zahtev ne obradi; parametri iz njega se citaju tek
+            // kada ih kontroler zatrazi, pa zahtev bez rute ga nikad ne parsira
+            request.setBody(data, base + headLength, contentLength, gson);
+        }
+        return request;
+    }
+
+    private void addHeader(int nameStart, int nameEnd, int valueStart, int valueEnd) {
+        int index = headerCount * 4;
+        if (index + 4 > headerOffsets.length) {
+            headerOffsets = Arrays.copyOf(headerOffsets, headerOffsets.length * 2);
+        }
+        headerOffsets[index] = nameStart;
+        headerOffsets[index + 1] = nameEnd;
+        headerOffsets[index + 2] = valueStart;
+        headerOffsets[index + 3] = valueEnd;
+        headerCount++;
+    }
+
+    private static Method matchMethod(byte[] data, int base, int length) {
+        for (int i = 0; i < METHODS.length; i++) {
+            byte[] name = METHOD_NAMES[i];
+            if (name.length == length && Arrays.equals(name, 0, length, data, base, base + length)) {
+                return METHODS[i];
+            }
+        }
+        return null;
+    }
+
+    private static String matchVersion(byte[] data, int start, int length) {
+        if (asciiEquals(data, start, length, HTTP_1_1)) {
+            return HTTP_1_1;
+        }
+        if (asciiEquals(data, start, length, HTTP_1_0)) {
+            return HTTP_1_0;
+        }
+        return new String(data, start, length, StandardCharsets.ISO_8859_1);
+    }
+
+    private static int parseContentLength(byte[] data, int start, int end) throws RequestNotValidException {
+        if (start == end) {
+            throw new RequestNotValidException("Empty Content-Length");
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = data[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new RequestNotValidException("Invalid Content-Length: " +
+                        new String(data, start, end - start, StandardCharsets.ISO_8859_1));
+            }
+            value = value * 10 + digit;
+            if (value > MAX_BODY_BYTES) {
+                throw new RequestNotValidException("Request body exceeds " + MAX_BODY_BYTES + " bytes");
+            }
+        }
+        return (int) value;
+    }
+
+    private static boolean asciiEquals(byte[] data, int start, int length, String expected) {
+        if (length != expected.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (data[start + i] != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean nameEquals(byte[] data, int start, int length, String lowerCaseName) {
+        if (length != lowerCaseName.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            int b = data[start + i];
+            if (b >= 'A' && b <= 'Z') {
+                b += 'a' - 'A';
+            }
+            if (b != lowerCaseName.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(byte[] data, int base, int from, int to, byte value) {
+        for (int i = from; i < to; i++) {
+            if (data[base + i] == value) {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    private static RequestNotValidException invalid(byte[] data, int base, int lineEnd) {
+        return new RequestNotValidException(new String(data, base, lineEnd, StandardCharsets.ISO_8859_1));
+    }
+
+    private void reset() {
+        scanned = 0;
+        headLength = -1;
+        method = null;
+        version = null;
+        headerCount = 0;
+        contentLength = 0;
+    }
+}
@@ -0,0 +1,84 @@
+package framework.request;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+/**
+ * Headers backed by the raw request bytes. {@link #get(String)} compares names directly
+ * against the bytes and only decodes the value it returns; the full map is built only
+ * when all keys are requested or a header is added.
+ */
+class ParsedHeader extends Header {
+    private final byte[] data;
+    // nameStart, nameEnd, valueStart, valueEnd za svaki header
+    private final int[] offsets;
+    private final int count;
+    private boolean materialized;
+
+    ParsedHeader(byte[] data, int[] offsets, int count) {
+        this.data = data;
+        this.offsets = offsets;
+        this.count = count;
+    }
+
+    @Override
+    public String get(String name) {
+        if (materialized) {
+            return super.get(name);
+        }
+        for (int i = 0; i < count; i++) {
+            int nameStart = offsets[i * 4];
+            int nameEnd = offsets[i * 4 + 1];
+            if (equalsIgnoreCase(name, nameStart, nameEnd)) {
+                return decode(offsets[i * 4 + 2], offsets[i * 4 + 3]);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void add(String name, String value) {
+        materialize();
+        super.add(name, value);
+    }
+
+    @Override
+    public Set<String> getKeys() {
+        materialize();
+        return super.getKeys();
+    }
+
+    @Override
+    public String toString() {
+        materialize();
+        return super.toString();
+    }
+
+    private void materialize() {
+        if (materialized) {
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            super.add(decode(offsets[i * 4], offsets[i * 4 + 1]), decode(offsets[i * 4 + 2], offsets[i * 4 + 3]));
+        }
+        materialized = true;
+    }
+
+    private boolean equalsIgnoreCase(String name, int start, int end) {
+        if (name.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char expected = name.charAt(i);
+            char actual = (char) (data[start + i] & 0xff);
+            if (expected != actual && Character.toLowerCase(expected) != Character.toLowerCase(actual)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String decode(int start, int end) {
+        return new String(data, start, end - start, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -1,15 +1,31 @@
 package framework.request;
 
+import com.google.gson.Gson;
 import framework.request.enums.Method;
+import framework.request.exceptions.MalformedBodyException;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map;
 
 public class Request {
 
     private Method method;
-    private String location;
+    private AsciiView target;
+    private int queryStart;
+    private AsciiView path;
+    private String version;
     private Header header;
     private HashMap<String, String> parameters;
+    private Map<String, String> parametersView;
+    private byte[] body;
+    private int bodyOffset;
+    private int bodyLength;
+    private Gson bodyGson;
+    private String[] pathVariableNames;
+    private int[] pathVariableBounds;
 
     public Request() {
         this(Method.GET, "/");
@@ -20,22 +36,108 @@ public class Request {
     }
 
     public Request(Method method, String location, Header header, HashMap<String, String> parameters) {
+        this(method, location, "HTTP/1.1", header, parameters);
+    }
+
+    public Request(Method method, String location, String version, Header header, HashMap<String, String> parameters) {
+        this(method, AsciiView.of(location), version, header);
+        this.parameters = parameters;
+    }
+
+    /**
+     * Request parsed from bytes; path, query and parameters are decoded on first access.
+     */
+    Request(Method method, AsciiView target, String version, Header header) {
         this.method = method;
-        this.location = location;
+        this.target = target;
+        this.queryStart = target.indexOf('?');
+        this.version = version;
         this.header = header;
-        this.parameters = parameters;
+    }
+
+    /**
+     * Attaches the received body bytes; they are read in place, not copied, and only parsed into
+     * parameters on first parameter access.
+     */
+    void setBody(byte[] data, int offset, int length, Gson gson) {
+        this.body = data;
+        this.bodyOffset = offset;
+        this.bodyLength = length;
+        this.bodyGson = gson;
+    }
+
+    /**
+     * Raw request body, exactly {@code Content-Length} bytes; empty if there is none.
+     */
+    public InputStream getBodyStream() {
+        if (body == null) {
+            return InputStream.nullInputStream();
+        }
+        return new ByteArrayInputStream(body, bodyOffset, bodyLength);
+    }
+
+    public int getContentLength() {
+        return bodyLength;
     }
 
     public void addParameter(String name, String value) {
-        this.parameters.put(name, value);
+        this.parameters().put(name, value);
     }
 
     public String getParameter(String name) {
-        return this.parameters.get(name);
+        return this.parameters().get(name);
+    }
+
+    /**
+     * Query and body parameters (body wins on a name clash), as a read-only view.
+     *
+     * @throws MalformedBodyException if the body can't be parsed
+     */
+    public Map<String, String> getParameters() {
+        if (parametersView == null) {
+            parametersView = Collections.unmodifiableMap(this.parameters());
+        }
+        return parametersView;
+    }
+
+    // Query string i body se parsiraju tek pri prvom pristupu parametrima
+    HashMap<String, String> parameters() {
+        if (parameters == null) {
+            HashMap<String, String> parsed = new HashMap<String, String>();
+            if (queryStart >= 0) {
+                Helper.addParameters(target, queryStart + 1, target.length(), parsed);
+            }
+            if (body != null && bodyGson != null && method == Method.POST) {
+                Helper.addBodyParameters(header.get("Content-Type"), body, bodyOffset, bodyLength, parsed, bodyGson);
+            }
+            parameters = parsed;
+        }
+        return parameters;
     }
 
-    public HashMap<String, String> getParameters() {
-        return new HashMap<String, String>(this.parameters);
+    /**
+     * Called by the router with the variable names of the matched {@code @Path} template and
+     * the {@code start, end} offsets of their values in {@link #getPathView()}.
+     */
+    public void bindPathVariables(String[] names, int[] bounds) {
+        this.pathVariableNames = names;
+        this.pathVariableBounds = bounds;
+    }
+
+    /**
+     * Percent-decoded value of a {@code {name}} segment of the matched route, or {@code null} if
+     * there is none.
+     */
+    public String getPathVariable(String name) {
+        if (pathVariableNames == null) {
+            return null;
+        }
+        for (int i = 0; i < pathVariableNames.length; i++) {
+            if (pathVariableNames[i].equals(name)) {
+                return Helper.decodePathSegment(getPathView(), pathVariableBounds[i * 2], pathVariableBounds[i * 2 + 1]);
+            }
+        }
+        return null;
     }
 
     public boolean isMethod(Method method) {
@@ -46,8 +148,42 @@ public class Request {
         return method;
     }
 
+    /**
+     * Full request target as sent by the client, including the query string.
+     */
     public String getLocation() {
-        return location;
+        return target.toString();
+    }
+
+    /**
+     * Request target without the query string.
+     */
+    public String getPath() {
+        return getPathView().toString();
+    }
+
+    /**
+     * Path as a view over the received bytes, for matching without creating a String.
+     */
+    public CharSequence getPathView() {
+        if (path == null) {
+            path = queryStart < 0 ? target : target.subSequence(0, queryStart);
+        }
+        return path;
+    }
+
+    /**
+     * Raw query string without the leading {@code ?}, or {@code null} if there is none.
+     */
+    public String getQueryString() {
+        return queryStart < 0 ? null : target.subSequence(queryStart + 1, target.length()).toString();
+    }
+
+    /**
+     * Protocol version from the request line, e.g. {@code HTTP/1.1}.
+     */
+    public String getVersion() {
+        return version;
     }
 
     public Header getHeader() {
@@ -0,0 +1,99 @@
+package framework.request;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Reusable per-connection receive buffer. Unconsumed bytes live in {@code [start, limit)}.
+ *
+ * Requests produced by {@link HttpRequestParser} keep views into the backing array, so the
+ * owner must only call {@link #compact()} once the previous request has been fully handled.
+ * Growing never touches the old array, so growth is always safe.
+ */
+public class RequestBuffer {
+    private static final int MIN_READ = 1024;
+
+    private byte[] data;
+    private int start;
+    private int limit;
+
+    public RequestBuffer(int initialCapacity) {
+        this.data = new byte[initialCapacity];
+    }
+
+    byte[] array() {
+        return data;
+    }
+
+    int start() {
+        return start;
+    }
+
+    int readable() {
+        return limit - start;
+    }
+
+    void advance(int count) {
+        start += count;
+    }
+
+    public boolean isEmpty() {
+        return start == limit;
+    }
+
+    /**
+     * Moves unconsumed bytes to the front of the array.
+     */
+    public void compact() {
+        if (start == 0) {
+            return;
+        }
+        int remaining = limit - start;
+        System.arraycopy(data, start, data, 0, remaining);
+        start = 0;
+        limit = remaining;
+    }
+
+    /**
+     * Reads whatever the stream has available (at least one byte, blocking).
+     *
+     * @return bytes read, or -1 at end of stream
+     */
+    public int readFrom(InputStream in) throws IOException {
+        ensureWritable();
+        int read = in.read(data, limit, data.length - limit);
+        if (read > 0) {
+            limit += read;
+        }
+        return read;
+    }
+
+    /**
+     * Reads whatever the channel has available without blocking if it is non-blocking.
+     *
+     * @return bytes read (possibly 0), or -1 at end of stream
+     */
+    public int readFrom(ReadableByteChannel channel) throws IOException {
+        ensureWritable();
+        int read = channel.read(ByteBuffer.wrap(data, limit, data.length - limit));
+        if (read > 0) {
+            limit += read;
+        }
+        return read;
+    }
+
+    private void ensureWritable() {
+        if (data.length - limit >= MIN_READ) {
+            return;
+        }
+        // Nov niz umesto pomeranja, stari zahtevi i dalje citaju iz starog
+        int remaining = readable();
+        byte[] bigger = new byte[Math.max(data.length * 2, remaining + MIN_READ * 4)];
+        System.arraycopy(data, start, bigger, 0, remaining);
+        data = bigger;
+        start = 0;
+        limit = remaining;
+    }
+}
@@ -0,0 +1,11 @@
+package framework.request.exceptions;
+
+/**
+ * Thrown when the request body can't be parsed into parameters. Bodies are parsed lazily, on
+ * first parameter access, so this is unchecked; the server answers it with 400 Bad Request.
+ */
+public class MalformedBodyException extends RuntimeException {
+    public MalformedBodyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
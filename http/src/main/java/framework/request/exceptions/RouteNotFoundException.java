@@ -0,0 +1,10 @@
+package framework.request.exceptions;
+
+/**
+ * Thrown when no registered route matches the request method and path
+ */
+public class RouteNotFoundException extends RequestNotValidException {
+    public RouteNotFoundException(String route) {
+        super(route);
+    }
+}
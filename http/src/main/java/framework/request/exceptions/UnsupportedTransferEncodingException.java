@@ -0,0 +1,13 @@
+package framework.request.exceptions;
+
+/**
+ * The request has a {@code Transfer-Encoding} header. Request bodies are only read by
+ * {@code Content-Length}, so the body can't be framed and the connection has to be closed.
+ */
+public class UnsupportedTransferEncodingException extends RequestNotValidException {
+
+    public UnsupportedTransferEncodingException(String transferEncoding) {
+        super("Transfer-Encoding: " + transferEncoding + " is not supported");
+    }
+
+}
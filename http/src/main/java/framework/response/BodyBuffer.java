@@ -0,0 +1,17 @@
+package framework.response;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Collects a response body as bytes and hands its buffer over without copying it.
+ */
+final class BodyBuffer extends ByteArrayOutputStream {
+    BodyBuffer(int initialSize) {
+        super(initialSize);
+    }
+
+    ByteBuffer toByteBuffer() {
+        return ByteBuffer.wrap(buf, 0, count);
+    }
+}
@@ -0,0 +1,106 @@
+package framework.response;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A response captured as its encoded bytes, so it can be sent again without the controller or
+ * the serializer.
+ *
+ * The bytes are shared by every copy and never changed; each copy has its own {@link #header},
+ * for the headers that differ per connection (such as {@code Connection}), which are written
+ * after the captured ones.
+ */
+public final class CachedResponse extends Response {
+    private final byte[] bytes;
+    // Kraj poslednjeg header-a (posle njegovog CRLF), pre prazne linije
+    private final int headEnd;
+    // ETag je vec u bajtovima, ali ga pamtimo i zasebno za If-None-Match
+    private final String etag;
+
+    private CachedResponse(byte[] bytes, int headEnd, String etag) {
+        this.bytes = bytes;
+        this.headEnd = headEnd;
+        this.etag = etag;
+    }
+
+    /**
+     * Encodes {@code response} once and keeps the result.
+     */
+    public static CachedResponse capture(Response response) {
+        ByteBuffer[] parts = response.encode();
+        int size = 0;
+        for (ByteBuffer part : parts) {
+            size += part.remaining();
+        }
+        byte[] bytes = new byte[size];
+        int position = 0;
+        for (ByteBuffer part : parts) {
+            int length = part.remaining();
+            part.duplicate().get(bytes, position, length);
+            position += length;
+        }
+        return new CachedResponse(bytes, findHeadEnd(bytes), response.getETag());
+    }
+
+    /**
+     * A copy for sending: same bytes, no extra headers yet.
+     */
+    public CachedResponse copy() {
+        return new CachedResponse(bytes, headEnd, etag);
+    }
+
+    /**
+     * Status code from the captured status line, or -1 if it can't be read.
+     */
+    public int getStatus() {
+        // "HTTP/1.1 200 ..."
+        if (bytes.length < 12) {
+            return -1;
+        }
+        int status = 0;
+        for (int i = 9; i < 12; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            status = status * 10 + digit;
+        }
+        return status;
+    }
+
+    /**
+     * Number of captured bytes.
+     */
+    public int size() {
+        return bytes.length;
+    }
+
+    @Override
+    public String getETag() {
+        return etag;
+    }
+
+    @Override
+    public ByteBuffer[] encode() {
+        int bodyStart = headEnd + 2;
+        return new ByteBuffer[]{
+                ByteBuffer.wrap(bytes, 0, headEnd),
+                ResponseHead.headers(this.header),
+                ByteBuffer.wrap(bytes, bodyStart, bytes.length - bodyStart)
+        };
+    }
+
+    @Override
+    public String render() {
+        return renderEncoded();
+    }
+
+    private static int findHeadEnd(byte[] bytes) {
+        for (int i = 0; i + 3 < bytes.length; i++) {
+            if (bytes[i] == '\r' && bytes[i + 1] == '\n' && bytes[i + 2] == '\r' && bytes[i + 3] == '\n') {
+                return i + 2;
+            }
+        }
+        throw new IllegalArgumentException("Response has no end of headers");
+    }
+}
@@ -0,0 +1,73 @@
+package framework.response;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Strong entity tags made from a version counter, so a response can be tagged without hashing
+ * its body, and the {@code If-None-Match} check against them.
+ *
+ * Tags carry an id picked at startup as well as the version: counters of in-memory data start
+ * again from zero after a restart, and a client must not get a 304 for a tag from the previous
+ * run.
+ */
+public final class ETags {
+    private static final String BOOT_ID = Long.toHexString(ThreadLocalRandom.current().nextLong() >>> 16);
+
+    private ETags() {
+    }
+
+    /**
+     * Quoted strong tag for {@code version}, e.g. {@code "3f2a9c1b07de-1a"}.
+     */
+    public static String fromVersion(long version) {
+        return "\"" + BOOT_ID + "-" + Long.toHexString(version) + "\"";
+    }
+
+    /**
+     * True if the {@code If-None-Match} header value matches {@code etag}: it is {@code *} or
+     * lists the same tag. Like HTTP's weak comparison, a {@code W/} prefix is ignored.
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        String opaque = opaque(etag, 0, etag.length());
+        int position = 0;
+        int length = ifNoneMatch.length();
+        while (position < length) {
+            // Lista tagova odvojenih zarezima; tag je "..." pa zarez unutar navodnika nije separator
+            while (position < length && (ifNoneMatch.charAt(position) == ' ' || ifNoneMatch.charAt(position) == ',')) {
+                position++;
+            }
+            if (position == length) {
+                break;
+            }
+            int start = position;
+            boolean quoted = false;
+            while (position < length && (quoted || ifNoneMatch.charAt(position) != ',')) {
+                if (ifNoneMatch.charAt(position) == '"') {
+                    quoted = !quoted;
+                }
+                position++;
+            }
+            int end = position;
+            while (end > start && ifNoneMatch.charAt(end - 1) == ' ') {
+                end--;
+            }
+            if (end - start == 1 && ifNoneMatch.charAt(start) == '*') {
+                return true;
+            }
+            if (opaque.equals(opaque(ifNoneMatch, start, end))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaque(String tag, int start, int end) {
+        if (tag.startsWith("W/", start)) {
+            start += 2;
+        }
+        return tag.substring(start, end);
+    }
+}
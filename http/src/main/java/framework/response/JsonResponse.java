@@ -1,45 +1,60 @@
 package framework.response;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import framework.json.JsonCodec;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
 
 public class JsonResponse extends Response {
-    private final Object content;
-    private final Gson gson;
+    private static final int INITIAL_BODY_SIZE = 256;
+
+    protected final int status;
+    protected final String reason;
+    protected final Object content;
 
     public JsonResponse(Object content) {
+        this(200, "OK", content);
+    }
+
+    public JsonResponse(int status, String reason, Object content) {
+        this.status = status;
+        this.reason = reason;
         this.content = content;
-        this.gson = new GsonBuilder().setPrettyPrinting().create();  // dodajemo pretty printing
         this.header.add("Content-Type", "application/json");
     }
 
-    @Override
-    public String render() {
-        StringBuilder responseContent = new StringBuilder();
-
-        // Dodajemo HTTP status liniju
-        responseContent.append("HTTP/1.1 200 OK\r\n");
-
-        // Dodajemo Content-Type header ako već nije dodat
-        if (!this.header.getKeys().contains("Content-Type")) {
-            this.header.add("Content-Type", "application/json");
-        }
-
-        // Prvo konvertujemo content u JSON da znamo dužinu
-        String jsonContent = gson.toJson(content);
-        this.header.add("Content-Length", String.valueOf(jsonContent.length()));
+    /**
+     * JSON error body of the form {@code {"error": message}}.
+     */
+    public static JsonResponse error(int status, String reason, String message) {
+        return new JsonResponse(status, reason, Map.of("error", message));
+    }
 
-        // Dodajemo sve header-e
-        for (String key : this.header.getKeys()) {
-            responseContent.append(key).append(": ").append(this.header.get(key)).append("\r\n");
+    @Override
+    public ByteBuffer[] encode() {
+        // JSON se pise direktno kao UTF-8 bajtovi, pa je Content-Length broj bajtova, ne karaktera
+        BodyBuffer body = new BodyBuffer(INITIAL_BODY_SIZE);
+        try (Writer writer = new OutputStreamWriter(body, StandardCharsets.UTF_8)) {
+            JsonCodec.shared().toJson(content, writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // pisanje u memoriju ne baca IOException
         }
+        this.header.add("Content-Length", String.valueOf(body.size()));
 
-        // Prazna linija koja označava kraj header-a
-        responseContent.append("\r\n");
-
-        // Dodajemo JSON sadržaj
-        responseContent.append(jsonContent);
+        return new ByteBuffer[]{
+                ResponseHead.statusLine(status, reason),
+                ResponseHead.headers(this.header),
+                body.toByteBuffer()
+        };
+    }
 
-        return responseContent.toString();
+    @Override
+    public String render() {
+        return renderEncoded();
     }
 }
@@ -0,0 +1,27 @@
+package framework.response;
+
+import java.nio.ByteBuffer;
+
+/**
+ * {@code 304 Not Modified}: the client's copy, named by its {@code If-None-Match} tag, is still
+ * current. Only the tag is sent back; a 304 never has a body.
+ */
+public class NotModifiedResponse extends Response {
+
+    public NotModifiedResponse(String etag) {
+        this.header.add("ETag", etag);
+    }
+
+    @Override
+    public ByteBuffer[] encode() {
+        return new ByteBuffer[]{
+                ResponseHead.statusLine(304, "Not Modified"),
+                ResponseHead.headers(this.header)
+        };
+    }
+
+    @Override
+    public String render() {
+        return renderEncoded();
+    }
+}
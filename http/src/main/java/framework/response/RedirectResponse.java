@@ -1,24 +1,27 @@
 package framework.response;
 
+import java.nio.ByteBuffer;
+
 public class RedirectResponse extends Response {
 
     private String url;
 
     public RedirectResponse(String url) {
         this.url = url;
-        this.header.add("location", url);
+        this.header.add("Location", url);
+        this.header.add("Content-Length", "0");
     }
 
-    public String render() {
-        StringBuilder responseContext = new StringBuilder();
-
-        responseContext.append("HTTP/1.1 301 redirect\n");
-        for (String key :
-                this.header.getKeys()) {
-            responseContext.append(key).append(":").append(this.header.get(key)).append("\n");
-        }
-        responseContext.append("\n");
+    @Override
+    public ByteBuffer[] encode() {
+        return new ByteBuffer[]{
+                ResponseHead.statusLine(301, "Moved Permanently"),
+                ResponseHead.headers(this.header)
+        };
+    }
 
-        return responseContext.toString();
+    @Override
+    public String render() {
+        return renderEncoded();
     }
 }
@@ -2,6 +2,11 @@ package framework.response;
 
 import framework.request.Header;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
 public abstract class Response {
     protected Header header;
 
@@ -9,5 +14,78 @@ public abstract class Response {
         this.header = new Header();
     }
 
+    public void addHeader(String name, String value) {
+        this.header.add(name, value);
+    }
+
+    /**
+     * The response's entity tag (the {@code ETag} header), or null if it has none.
+     * A GET answered with a tagged response can be answered with 304 when the client already
+     * holds that tag; see {@link ETags}.
+     */
+    public String getETag() {
+        return this.header.get("ETag");
+    }
+
     public abstract String render();
+
+    /**
+     * The whole response as bytes, ready for a gathering write: for the framework's responses
+     * the status line, the header block and the body, each in its own heap buffer.
+     * By default this is {@link #render()} encoded as UTF-8.
+     */
+    public ByteBuffer[] encode() {
+        return new ByteBuffer[]{ByteBuffer.wrap(render().getBytes(StandardCharsets.UTF_8))};
+    }
+
+    /**
+     * Writes the whole response (status line, headers and body) to {@code out}.
+     * By default that is {@link #encode()}; streaming responses override it and write the body
+     * while it is being produced.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        for (ByteBuffer buffer : encode()) {
+            write(buffer, out);
+        }
+    }
+
+    /**
+     * True if {@link #writeTo(OutputStream)} sends the body with chunked transfer encoding.
+     * Clients that don't speak HTTP/1.1 get {@link #encode()} instead.
+     */
+    public boolean isStreaming() {
+        return false;
+    }
+
+    /**
+     * Writes the remaining bytes of {@code buffer} without changing its position.
+     */
+    public static void write(ByteBuffer buffer, OutputStream out) throws IOException {
+        if (buffer.hasArray()) {
+            out.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        } else {
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.duplicate().get(bytes);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * {@link #encode()} decoded back into a string, for responses whose encoded form is primary.
+     */
+    protected String renderEncoded() {
+        ByteBuffer[] buffers = encode();
+        int size = 0;
+        for (ByteBuffer buffer : buffers) {
+            size += buffer.remaining();
+        }
+        byte[] bytes = new byte[size];
+        int position = 0;
+        for (ByteBuffer buffer : buffers) {
+            int length = buffer.remaining();
+            buffer.duplicate().get(bytes, position, length);
+            position += length;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
 }
@@ -0,0 +1,124 @@
+package framework.response;
+
+import framework.request.Header;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Encodes the status line and header block of a response straight into bytes.
+ *
+ * Status lines are encoded once per status code and reused. Header lines that are the same on
+ * almost every response (content type, connection handling, transfer encoding) are kept
+ * pre-encoded as well; everything else is written character by character into one array, with
+ * no intermediate strings.
+ */
+final class ResponseHead {
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    private static final Map<Integer, StatusLine> STATUS_LINES = new ConcurrentHashMap<>();
+    // Ime -> vrednost -> gotova linija; puni se samo u static bloku, posle se samo cita
+    private static final Map<String, Map<String, byte[]>> CONSTANT_HEADERS = new HashMap<>();
+
+    static {
+        constant("Content-Type", "application/json");
+        constant("Connection", "keep-alive");
+        constant("Connection", "close");
+        constant("Transfer-Encoding", "chunked");
+        constant("Content-Length", "0");
+    }
+
+    private ResponseHead() {
+    }
+
+    private static final class StatusLine {
+        final String reason;
+        final byte[] bytes;
+
+        StatusLine(String reason, byte[] bytes) {
+            this.reason = reason;
+            this.bytes = bytes;
+        }
+    }
+
+    private static void constant(String name, String value) {
+        CONSTANT_HEADERS.computeIfAbsent(name, key -> new HashMap<>()).put(value, encodeLine(name, value));
+    }
+
+    /**
+     * {@code HTTP/1.1 status reason CRLF}. Cached per status code; a reason other than the cached
+     * one is encoded on the spot.
+     */
+    static ByteBuffer statusLine(int status, String reason) {
+        StatusLine cached = STATUS_LINES.get(status);
+        if (cached == null) {
+            byte[] bytes = encodeStatusLine(status, reason);
+            if (status < 100 || status > 599) {
+                return ByteBuffer.wrap(bytes);
+            }
+            cached = STATUS_LINES.computeIfAbsent(status, key -> new StatusLine(reason, bytes));
+        }
+        if (!cached.reason.equals(reason)) {
+            return ByteBuffer.wrap(encodeStatusLine(status, reason));
+        }
+        // Niz se samo cita, pa ga svi odgovori dele; svaki dobija svoj ByteBuffer sa svojom pozicijom
+        return ByteBuffer.wrap(cached.bytes);
+    }
+
+    /**
+     * All headers as {@code name: value CRLF} lines, followed by the empty line that ends the head.
+     */
+    static ByteBuffer headers(Header header) {
+        int size = CRLF.length;
+        for (String name : header.getKeys()) {
+            byte[] constant = constantLine(name, header.get(name));
+            size += constant != null ? constant.length : name.length() + 2 + header.get(name).length() + 2;
+        }
+
+        byte[] bytes = new byte[size];
+        int position = 0;
+        for (String name : header.getKeys()) {
+            String value = header.get(name);
+            byte[] constant = constantLine(name, value);
+            if (constant != null) {
+                System.arraycopy(constant, 0, bytes, position, constant.length);
+                position += constant.length;
+            } else {
+                position = put(bytes, position, name);
+                bytes[position++] = ':';
+                bytes[position++] = ' ';
+                position = put(bytes, position, value);
+                bytes[position++] = '\r';
+                bytes[position++] = '\n';
+            }
+        }
+        bytes[position++] = '\r';
+        bytes[position] = '\n';
+        return ByteBuffer.wrap(bytes);
+    }
+
+    private static byte[] constantLine(String name, String value) {
+        Map<String, byte[]> values = CONSTANT_HEADERS.get(name);
+        return values == null ? null : values.get(value);
+    }
+
+    private static byte[] encodeStatusLine(int status, String reason) {
+        return ("HTTP/1.1 " + status + " " + reason + "\r\n").getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private static byte[] encodeLine(String name, String value) {
+        return (name + ": " + value + "\r\n").getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    // Header-i su ISO-8859-1; znakove van tog opsega zamenjujemo sa '?'
+    private static int put(byte[] bytes, int position, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            bytes[position++] = c <= 0xFF ? (byte) c : (byte) '?';
+        }
+        return position;
+    }
+}
@@ -0,0 +1,58 @@
+package framework.response;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonNull;
+import com.google.gson.stream.JsonWriter;
+import framework.json.JsonCodec;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * JSON response whose body is serialized straight to the connection.
+ *
+ * {@link #writeTo(OutputStream)} sends the headers with {@code Transfer-Encoding: chunked} and
+ * then lets Gson write into a {@link JsonWriter} over a {@link ChunkedOutputStream}, so the
+ * payload is never held in memory as a whole, only one chunk of it at a time. Meant for large or
+ * unbounded results such as whole collections; {@link JsonResponse} is simpler for small ones.
+ *
+ * {@link #encode()} and {@link #render()} are the buffered form inherited from
+ * {@link JsonResponse}, with a Content-Length, for clients that can't receive chunked bodies.
+ */
+public class StreamingJsonResponse extends JsonResponse {
+    private static final int CHUNK_SIZE = 8 * 1024;
+
+    public StreamingJsonResponse(Object content) {
+        super(content);
+    }
+
+    public StreamingJsonResponse(int status, String reason, Object content) {
+        super(status, reason, content);
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return true;
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        this.header.add("Transfer-Encoding", "chunked");
+        write(ResponseHead.statusLine(status, reason), out);
+        write(ResponseHead.headers(this.header), out);
+
+        ChunkedOutputStream chunked = new ChunkedOutputStream(out, CHUNK_SIZE);
+        Gson gson = JsonCodec.shared().gson();
+        // Flush ide tek na kraju, da JsonWriter ne bi pravio male chunk-ove
+        JsonWriter writer = gson.newJsonWriter(new OutputStreamWriter(chunked, StandardCharsets.UTF_8));
+        if (content == null) {
+            gson.toJson(JsonNull.INSTANCE, writer);
+        } else {
+            gson.toJson(content, content.getClass(), writer);
+        }
+        writer.flush();
+        chunked.finish();
+    }
+}
@@ -0,0 +1,42 @@
+package framework.route;
+
+import framework.request.Request;
+import framework.response.Response;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+
+/**
+ * Route invoker for lazy DI mode: the controller (and with it its dependencies) is only created
+ * on the first request, or by {@link #resolve()} during background warm-up.
+ * After that every call goes straight to the real invoker.
+ */
+final class LazyRouteInvoker implements RouteInvoker {
+    private final Callable<Object> controller;
+    private final Method method;
+    private volatile RouteInvoker delegate;
+
+    LazyRouteInvoker(Callable<Object> controller, Method method) {
+        this.controller = controller;
+        this.method = method;
+    }
+
+    @Override
+    public Response invoke(Request request) throws Exception {
+        return resolve().invoke(request);
+    }
+
+    RouteInvoker resolve() throws Exception {
+        RouteInvoker invoker = delegate;
+        if (invoker == null) {
+            synchronized (this) {
+                invoker = delegate;
+                if (invoker == null) {
+                    invoker = RouteInvokers.create(controller.call(), method);
+                    delegate = invoker;
+                }
+            }
+        }
+        return invoker;
+    }
+}
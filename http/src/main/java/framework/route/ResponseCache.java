@@ -0,0 +1,167 @@
+package framework.route;
+
+import framework.annotations.Cached;
+import framework.response.CachedResponse;
+import framework.response.Response;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One named cache of captured responses, shared by the routes annotated with the same
+ * {@code @Cached} name.
+ *
+ * Hits are lock-free map lookups. Entries expire after the TTL and, when the cache is over its
+ * entry or byte limit, the oldest are evicted. Streaming responses are passed through and never
+ * stored. {@link #invalidate()} bumps a generation counter before clearing, and a response
+ * computed before that is not stored, so a read racing with a write can't put stale data back
+ * into the cache.
+ */
+final class ResponseCache {
+    private final String name;
+    private final int ttlSeconds;
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong generation = new AtomicLong();
+
+    private static final class Entry {
+        final CachedResponse response;
+        final long storedAt;
+        final long expiresAt;
+
+        Entry(CachedResponse response, long storedAt, long expiresAt) {
+            this.response = response;
+            this.storedAt = storedAt;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return expiresAt != 0 && now - expiresAt > 0;
+        }
+    }
+
+    ResponseCache(String name, int ttlSeconds, int maxEntries, long maxBytes) {
+        this.name = name;
+        this.ttlSeconds = ttlSeconds;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.maxEntries = Math.max(1, maxEntries);
+        this.maxBytes = Math.max(1, maxBytes);
+    }
+
+    static ResponseCache of(Cached cached) {
+        return new ResponseCache(cached.value(), cached.ttlSeconds(), cached.maxEntries(), cached.maxBytes());
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * True if {@code cached} asks for the same limits this cache was created with.
+     */
+    boolean hasLimitsOf(Cached cached) {
+        return ttlSeconds == cached.ttlSeconds() && maxEntries == Math.max(1, cached.maxEntries())
+                && maxBytes == Math.max(1, cached.maxBytes());
+    }
+
+    /**
+     * A copy of the cached response for {@code key}, or null on a miss.
+     */
+    Response get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(System.nanoTime())) {
+            remove(key, entry);
+            return null;
+        }
+        return entry.response.copy();
+    }
+
+    /**
+     * Read before calling the controller and passed to {@link #store}.
+     */
+    long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Captures the response, stores it if it is a 200 within the byte limit and no invalidation
+     * happened since {@code generationBefore}, and returns what should be sent. Streaming
+     * responses are returned as they are.
+     */
+    Response store(String key, Response response, long generationBefore) {
+        if (response.isStreaming()) {
+            // Strimovan odgovor bi morao ceo da se serijalizuje u memoriju; salje se dok nastaje
+            return response;
+        }
+        CachedResponse captured = CachedResponse.capture(response);
+        if (captured.getStatus() != 200 || captured.size() > maxBytes || generation.get() != generationBefore) {
+            return captured;
+        }
+
+        long now = System.nanoTime();
+        Entry entry = new Entry(captured, now, ttlNanos == 0 ? 0 : now + ttlNanos);
+        Entry previous = entries.put(key, entry);
+        bytes.addAndGet(captured.size() - (previous == null ? 0 : previous.response.size()));
+        if (generation.get() != generationBefore) {
+            // invalidate() je stigao izmedju provere i upisa
+            remove(key, entry);
+        }
+        evictIfFull();
+        return captured.copy();
+    }
+
+    void invalidate() {
+        generation.incrementAndGet();
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            remove(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void remove(String key, Entry entry) {
+        if (entries.remove(key, entry)) {
+            bytes.addAndGet(-entry.response.size());
+        }
+    }
+
+    private boolean isFull(int entryLimit, long byteLimit) {
+        return entries.size() > entryLimit || bytes.get() > byteLimit;
+    }
+
+    private void evictIfFull() {
+        if (!isFull(maxEntries, maxBytes)) {
+            return;
+        }
+        synchronized (this) {
+            if (!isFull(maxEntries, maxBytes)) {
+                return;
+            }
+            long now = System.nanoTime();
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                if (entry.getValue().isExpired(now)) {
+                    remove(entry.getKey(), entry.getValue());
+                }
+            }
+            if (!isFull(maxEntries, maxBytes)) {
+                return;
+            }
+            // Izbacujemo desetinu vise nego sto mora, da se ovo ne radi na svakom upisu
+            int entryLimit = maxEntries - maxEntries / 10;
+            long byteLimit = maxBytes - maxBytes / 10;
+            List<Map.Entry<String, Entry>> oldest = new ArrayList<>(entries.entrySet());
+            oldest.sort((a, b) -> Long.compare(a.getValue().storedAt, b.getValue().storedAt));
+            for (int i = 0; i < oldest.size() && isFull(entryLimit, byteLimit); i++) {
+                remove(oldest.get(i).getKey(), oldest.get(i).getValue());
+            }
+        }
+    }
+}
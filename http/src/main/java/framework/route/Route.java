@@ -1,23 +1,61 @@
 package framework.route;
 
 import framework.request.enums.Method;
+
+import java.util.ArrayList;
+import java.util.List;
+
 public class Route {
     private final String path;
     private final Method method;
     private final Class<?> controllerClass;
     private final java.lang.reflect.Method controllerMethod;
+    private final String[] pathVariableNames;
+    private final RouteInvoker invoker;
+    private final ResponseCache cache;
+    private final ResponseCache[] invalidates;
+
+    public Route(String path, Method method, Class<?> controllerClass, java.lang.reflect.Method controllerMethod,
+                 RouteInvoker invoker) {
+        this(path, method, controllerClass, controllerMethod, invoker, null, new ResponseCache[0]);
+    }
 
-    public Route(String path, Method method, Class<?> controllerClass, java.lang.reflect.Method controllerMethod) {
+    Route(String path, Method method, Class<?> controllerClass, java.lang.reflect.Method controllerMethod,
+          RouteInvoker invoker, ResponseCache cache, ResponseCache[] invalidates) {
         this.path = path;
         this.method = method;
         this.controllerClass = controllerClass;
         this.controllerMethod = controllerMethod;
+        this.invoker = invoker;
+        this.cache = cache;
+        this.invalidates = invalidates;
+        this.pathVariableNames = parseVariableNames(path);
+    }
+
+    // {id} i slicni segmenti, redom kojim se pojavljuju u putanji
+    private static String[] parseVariableNames(String path) {
+        List<String> names = new ArrayList<>();
+        int open = path.indexOf('{');
+        while (open >= 0) {
+            int close = path.indexOf('}', open);
+            if (close < 0) {
+                break;
+            }
+            names.add(path.substring(open + 1, close));
+            open = path.indexOf('{', close);
+        }
+        return names.toArray(new String[0]);
     }
 
     public String getPath() { return path; }
     public Method getMethod() { return method; }
     public Class<?> getControllerClass() { return controllerClass; }
     public java.lang.reflect.Method getControllerMethod() { return controllerMethod; }
+    public String[] getPathVariableNames() { return pathVariableNames; }
+    public RouteInvoker getInvoker() { return invoker; }
+    // null ako ruta nema @Cached
+    ResponseCache getCache() { return cache; }
+    ResponseCache[] getInvalidates() { return invalidates; }
 
     // pomocni metod za mapiranje ruta
     @Override
@@ -1,76 +1,204 @@
 package framework.route;
 
+import framework.annotations.Cached;
+import framework.annotations.InvalidateCache;
 import framework.di.DIEngine;
 import framework.request.Request;
 import framework.request.enums.Method;
-import framework.request.exceptions.RequestNotValidException;
+import framework.request.exceptions.DependencyResolutionException;
+import framework.request.exceptions.RouteNotFoundException;
+import framework.response.ETags;
+import framework.response.NotModifiedResponse;
 import framework.response.Response;
 
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class RouteHandler {
-    private final Map<String, Route> routes;
+    private static final int[] NO_BOUNDS = new int[0];
+
+    private final Map<Method, RouteTree> routes;
     private final DIEngine diEngine;
+    private final List<LazyRouteInvoker> lazyInvokers;
+    // Imenovani kesevi odgovora; pune se samo pri registraciji ruta
+    private final Map<String, ResponseCache> caches;
+    // Imena iz @InvalidateCache se vezuju za keseve tek kada su sve rute registrovane
+    private final List<Runnable> cacheLinks;
+    private final boolean cacheEnabled;
 
     public RouteHandler(DIEngine diEngine) {
-        this.routes = new HashMap<>();
+        this.lazyInvokers = new ArrayList<>();
+        this.caches = new HashMap<>();
+        this.cacheLinks = new ArrayList<>();
+        // -Dcache.enabled=false iskljucuje @Cached, npr. pri debagovanju
+        this.cacheEnabled = Boolean.parseBoolean(System.getProperty("cache.enabled", "true"));
+        this.routes = new EnumMap<>(Method.class);
+        for (Method method : Method.values()) {
+            routes.put(method, new RouteTree());
+        }
         this.diEngine = diEngine;
     }
 
     public void handleRoutes(String path, Method method, Class<?> controllerClass, java.lang.reflect.Method controllerMethod) {
         String key = method + ":" + path;
         System.out.println("Registrovana ruta: " + key);
-        routes.put(key, new Route(path, method, controllerClass, controllerMethod));
+        // Kontroler se vezuje za invoker jednom, pri registraciji, a ne pri svakom zahtevu
+        RouteInvoker invoker;
+        try {
+            if (diEngine.getConfig().isLazy()) {
+                // U lazy modu kontroler nastaje tek na prvom zahtevu (ili pri zagrevanju)
+                LazyRouteInvoker lazy = RouteInvokers.lazy(() -> diEngine.getController(controllerClass), controllerMethod);
+                lazyInvokers.add(lazy);
+                invoker = lazy;
+            } else {
+                Object controller = diEngine.getController(controllerClass);
+                invoker = RouteInvokers.create(controller, controllerMethod);
+            }
+        } catch (Exception e) {
+            throw new DependencyResolutionException("Failed to register route " + key + ": " + e.getMessage(), e);
+        }
+
+        // Ruta se kompajlira u stablo odmah pri registraciji
+        routes.get(method).add(path, new Route(path, method, controllerClass, controllerMethod, invoker,
+                cacheFor(key, method, controllerMethod), invalidatedBy(key, controllerMethod)));
+    }
+
+    private ResponseCache cacheFor(String key, Method method, java.lang.reflect.Method controllerMethod) {
+        Cached cached = controllerMethod.getAnnotation(Cached.class);
+        if (cached == null || !cacheEnabled) {
+            return null;
+        }
+        if (method != Method.GET) {
+            throw new IllegalArgumentException("@Cached is only supported on GET routes: " + key);
+        }
+        ResponseCache cache = caches.computeIfAbsent(cached.value(), name -> ResponseCache.of(cached));
+        if (!cache.hasLimitsOf(cached)) {
+            throw new IllegalArgumentException("@Cached(\"" + cached.value() + "\") on " + key +
+                    " declares different limits than another route using the same cache");
+        }
+        System.out.println("Ruta " + key + " koristi kes '" + cache.getName() + "'");
+        return cache;
+    }
+
+    private ResponseCache[] invalidatedBy(String key, java.lang.reflect.Method controllerMethod) {
+        InvalidateCache invalidate = controllerMethod.getAnnotation(InvalidateCache.class);
+        if (invalidate == null || !cacheEnabled) {
+            return new ResponseCache[0];
+        }
+        // Kes moze da bude registrovan tek posle ove rute; niz se popunjava u linkCaches()
+        String[] names = invalidate.value();
+        ResponseCache[] invalidates = new ResponseCache[names.length];
+        cacheLinks.add(() -> {
+            for (int i = 0; i < names.length; i++) {
+                invalidates[i] = caches.get(names[i]);
+                if (invalidates[i] == null) {
+                    throw new IllegalArgumentException("@InvalidateCache on " + key + " names cache '" + names[i] +
+                            "', but no @Cached route uses it");
+                }
+            }
+        });
+        return invalidates;
+    }
+
+    /**
+     * Resolves the {@code @InvalidateCache} names against the caches declared by {@code @Cached}
+     * routes. Called once, after every route is registered, because a write route may be
+     * registered before the routes whose cache it clears.
+     *
+     * @throws IllegalArgumentException if a name isn't used by any {@code @Cached} route
+     */
+    public void linkCaches() {
+        for (Runnable link : cacheLinks) {
+            link.run();
+        }
+        cacheLinks.clear();
+    }
+
+    /**
+     * Creates the controllers behind lazily registered routes. Meant for the background warm-up
+     * thread; a route that fails here is left to fail again on its first request.
+     */
+    public void warmUp() {
+        for (LazyRouteInvoker invoker : lazyInvokers) {
+            try {
+                invoker.resolve();
+            } catch (Exception e) {
+                System.out.println("Warm-up of route controller failed: " + e.getMessage());
+            }
+        }
     }
 
     public Response handleRequest(Request request) throws Exception {
-        String requestPath = request.getLocation();
         Method requestMethod = request.getMethod();
+        RouteTree tree = routes.get(requestMethod);
+        int[] bounds = tree.boundsLength() == 0 ? NO_BOUNDS : new int[tree.boundsLength()];
+        Route route = tree.find(request.getPathView(), bounds);
 
-        // Prvo probamo exact match
-        String exactKey = requestMethod + ":" + requestPath;
-        Route route = routes.get(exactKey);
-
-        // Ako nema exact match, tražimo parametarsku rutu
         if (route == null) {
-            route = findParameterizedRoute(requestMethod, requestPath);
+            throw new RouteNotFoundException("Ruta nije pronađena: " + requestMethod + ":" + request.getPath());
+        }
+        if (route.getPathVariableNames().length > 0) {
+            // Vrednosti se citaju direktno iz putanje tek kada ih kontroler zatrazi
+            request.bindPathVariables(route.getPathVariableNames(), bounds);
         }
 
-        if (route == null) {
-            throw new RequestNotValidException("Ruta nije pronađena: " + exactKey);
+        ResponseCache cache = route.getCache();
+        String cacheKey = null;
+        long generation = 0;
+        if (cache != null) {
+            cacheKey = route + " " + request.getLocation();
+            Response cached = cache.get(cacheKey);
+            if (cached != null) {
+                // bez kontrolera i serijalizacije
+                Response notModified = notModified(request, cached);
+                return notModified != null ? notModified : cached;
+            }
+            generation = cache.generation();
+        }
+
+        RouteInvoker invoker = route.getInvoker();
+        if (invoker instanceof LazyRouteInvoker) {
+            // Kontroler i njegovi singletoni se prave van request scope-a, da ne pokupe instance ovog zahteva
+            invoker = ((LazyRouteInvoker) invoker).resolve();
         }
 
-        // Dobavi instancu kontrolera kroz DI
-        Object controller = diEngine.getController(route.getControllerClass());
+        // Pozovi odgovarajuću metodu kontrolera, unutar request scope-a
+        Response response;
+        diEngine.enterRequestScope();
+        try {
+            response = invoker.invoke(request);
+        } finally {
+            diEngine.exitRequestScope();
+        }
 
-        // Pozovi odgovarajuću metodu kontrolera
-        return (Response) route.getControllerMethod().invoke(controller, request);
+        for (ResponseCache invalidated : route.getInvalidates()) {
+            invalidated.invalidate();
+        }
+        if (response == null) {
+            return null;
+        }
+        // Telo (JSON) se serijalizuje tek pri slanju, pa 304 preskace serijalizaciju
+        Response notModified = notModified(request, response);
+        if (notModified != null) {
+            return notModified;
+        }
+        if (cache != null) {
+            response = cache.store(cacheKey, response, generation);
+        }
+        return response;
     }
 
-    private Route findParameterizedRoute(Method requestMethod, String requestPath) {
-        String[] requestParts = requestPath.split("/");
-
-        for (Map.Entry<String, Route> entry : routes.entrySet()) {
-            Route route = entry.getValue();
-            String routePath = route.getPath();
-            String[] routeParts = routePath.split("/");
-
-            if (route.getMethod() == requestMethod &&
-                    routeParts.length == requestParts.length) {
-                boolean matches = true;
-                for (int i = 0; i < routeParts.length; i++) {
-                    if (!routeParts[i].equals(requestParts[i]) &&
-                            !routeParts[i].matches("\\{.*\\}")) {
-                        matches = false;
-                        break;
-                    }
-                }
-                if (matches) {
-                    return route;
-                }
-            }
+    /**
+     * A 304 for a GET whose If-None-Match lists the response's ETag, otherwise null.
+     */
+    private static Response notModified(Request request, Response response) {
+        String etag = response.getETag();
+        if (etag == null || request.getMethod() != Method.GET) {
+            return null;
         }
-        return null;
+        return ETags.matches(request.getHeader().get("If-None-Match"), etag) ? new NotModifiedResponse(etag) : null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,12 @@
+package framework.route;
+
+import framework.request.Request;
+import framework.response.Response;
+
+/**
+ * Calls one controller method with the controller instance already bound.
+ */
+@FunctionalInterface
+public interface RouteInvoker {
+    Response invoke(Request request) throws Exception;
+}
@@ -0,0 +1,149 @@
+package framework.route;
+
+import framework.annotations.Body;
+import framework.request.Request;
+import framework.response.Response;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.util.concurrent.Callable;
+
+/**
+ * Builds {@link RouteInvoker}s for controller methods at registration time.
+ *
+ * The preferred form is a {@link LambdaMetafactory} lambda that calls the controller method
+ * directly, so the request path has no reflection and the JIT can inline the call. If the
+ * metafactory can't be used, a bound {@link MethodHandle} is used instead.
+ *
+ * Besides the plain {@code (Request)} form, a controller method may take the {@link Request}
+ * and at most one {@link Body} parameter, in any order, or neither. Those methods are adapted
+ * with method handle filters that pass the request or bind the body with a {@link BodyBinder}.
+ */
+final class RouteInvokers {
+    private static final MethodType INVOKER_SIGNATURE = MethodType.methodType(Response.class, Request.class);
+    private static final MethodHandle BIND_BODY;
+
+    static {
+        try {
+            BIND_BODY = MethodHandles.lookup().findVirtual(BodyBinder.class, "bind",
+                    MethodType.methodType(Object.class, Request.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private RouteInvokers() {
+    }
+
+    static RouteInvoker create(Object controller, Method method) {
+        validate(method);
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(method.getDeclaringClass(), MethodHandles.lookup());
+            MethodHandle target = lookup.unreflect(method);
+            if (!takesRequestOnly(method)) {
+                return bound(bindParameters(target.bindTo(controller), method));
+            }
+            try {
+                return lambda(lookup, target, controller, method);
+            } catch (Throwable e) {
+                return bound(target.bindTo(controller));
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Controller method is not accessible: " + describe(method), e);
+        }
+    }
+
+    /**
+     * Invoker that creates the controller on first use, for lazy DI mode.
+     * The method signature is still checked right away, at registration.
+     */
+    static LazyRouteInvoker lazy(Callable<Object> controller, Method method) {
+        validate(method);
+        return new LazyRouteInvoker(controller, method);
+    }
+
+    private static RouteInvoker lambda(MethodHandles.Lookup lookup, MethodHandle target, Object controller,
+                                       Method method) throws Throwable {
+        CallSite site = LambdaMetafactory.metafactory(
+                lookup,
+                "invoke",
+                MethodType.methodType(RouteInvoker.class, method.getDeclaringClass()),
+                INVOKER_SIGNATURE,
+                target,
+                MethodType.methodType(method.getReturnType(), Request.class));
+        return (RouteInvoker) site.getTarget().invoke(controller);
+    }
+
+    /**
+     * Turns {@code (P1..Pn) -> R} into {@code (Request) -> R}: every parameter is computed from
+     * the one request, either the request itself or its bound body.
+     */
+    private static MethodHandle bindParameters(MethodHandle target, Method method) {
+        Parameter[] parameters = method.getParameters();
+        MethodHandle[] filters = new MethodHandle[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            if (parameters[i].getType() != Request.class) {
+                // Adapter za tip se trazi jednom, ovde, a ne pri svakom zahtevu
+                filters[i] = BIND_BODY.bindTo(BodyBinder.forParameter(parameters[i]))
+                        .asType(MethodType.methodType(parameters[i].getType(), Request.class));
+            }
+        }
+        MethodHandle filtered = MethodHandles.filterArguments(target, 0, filters);
+        // Svi argumenti su sada isti Request
+        return MethodHandles.permuteArguments(filtered, MethodType.methodType(method.getReturnType(), Request.class),
+                new int[parameters.length]);
+    }
+
+    private static RouteInvoker bound(MethodHandle target) {
+        MethodHandle handle = target.asType(INVOKER_SIGNATURE);
+        return request -> {
+            try {
+                return (Response) handle.invokeExact(request);
+            } catch (Exception | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    private static void validate(Method method) {
+        if (Modifier.isStatic(method.getModifiers())) {
+            throw new IllegalArgumentException("Controller method must not be static: " + describe(method));
+        }
+        if (!Response.class.isAssignableFrom(method.getReturnType())) {
+            throw new IllegalArgumentException("Controller method must return a Response: " + describe(method));
+        }
+        int requests = 0;
+        int bodies = 0;
+        for (Parameter parameter : method.getParameters()) {
+            if (parameter.getType() == Request.class) {
+                requests++;
+            } else if (parameter.isAnnotationPresent(Body.class)) {
+                bodies++;
+            } else {
+                throw new IllegalArgumentException("Controller method parameter must be a Request or annotated with @Body: " +
+                        describe(method) + "(" + parameter.getType().getSimpleName() + ")");
+            }
+        }
+        if (requests > 1 || bodies > 1) {
+            throw new IllegalArgumentException("Controller method takes at most one Request and one @Body parameter: " +
+                    describe(method));
+        }
+    }
+
+    private static boolean takesRequestOnly(Method method) {
+        Class<?>[] parameters = method.getParameterTypes();
+        return parameters.length == 1 && parameters[0] == Request.class;
+    }
+
+    private static String describe(Method method) {
+        return method.getDeclaringClass().getName() + "." + method.getName();
+    }
+}
@@ -0,0 +1,195 @@
+package framework.route;
+
+/**
+ * Radix tree of the routes registered for one HTTP method.
+ *
+ * Static parts of a {@code @Path} template are stored as compressed edges (shared prefixes are
+ * split into common nodes); every {@code {name}} segment becomes a variable node that consumes
+ * one path segment. Lookup walks the request path once, without splitting or regular
+ * expressions, so its cost depends on the path length and not on the number of routes.
+ * Static edges are always tried before a variable at the same position, so
+ * {@code /students/new} wins over {@code /students/{id}} regardless of registration order.
+ *
+ * Variable segments are bound while matching: their start and end offsets in the path are
+ * written into a caller-supplied array, in template order.
+ */
+class RouteTree {
+    private final Node root = new Node("");
+    private int maxVariables;
+
+    void add(String template, Route route) {
+        if (template.isEmpty() || template.charAt(0) != '/') {
+            throw new IllegalArgumentException("Route path must start with '/': " + template);
+        }
+
+        Node node = root;
+        int variables = 0;
+        int i = 0;
+        while (i < template.length()) {
+            int open = template.indexOf('{', i);
+            if (open == i) {
+                int close = template.indexOf('}', open);
+                if (close < 0) {
+                    throw new IllegalArgumentException("Unclosed path variable in route: " + template);
+                }
+                if (close + 1 < template.length() && template.charAt(close + 1) != '/') {
+                    throw new IllegalArgumentException("Path variable must span a whole segment: " + template);
+                }
+                node = node.variableChild(template.substring(open + 1, close), template);
+                variables++;
+                i = close + 1;
+            } else {
+                int end = open < 0 ? template.length() : open;
+                if (template.charAt(end - 1) != '/' && open >= 0) {
+                    throw new IllegalArgumentException("Path variable must span a whole segment: " + template);
+                }
+                node = node.staticChild(template.substring(i, end));
+                i = end;
+            }
+        }
+        node.route = route;
+        maxVariables = Math.max(maxVariables, variables);
+    }
+
+    /**
+     * Size of the bounds array {@link #find} needs: two ints per variable of the longest template.
+     */
+    int boundsLength() {
+        return maxVariables * 2;
+    }
+
+    /**
+     * @param bounds receives {@code start, end} of each variable segment of the matched route
+     */
+    Route find(CharSequence path, int[] bounds) {
+        return root.match(path, 0, bounds, 0);
+    }
+
+    private static final class Node {
+        // Staticki deo putanje koji ovaj cvor trosi (prazan za koren i za varijable)
+        private String prefix;
+        private Node[] staticChildren = new Node[0];
+        private Node variable;
+        private String variableName;
+        private Route route;
+
+        Node(String prefix) {
+            this.prefix = prefix;
+        }
+
+        /**
+         * Descends along {@code part}, splitting edges where it diverges from existing ones.
+         */
+        Node staticChild(String part) {
+            Node node = this;
+            while (!part.isEmpty()) {
+                Node child = node.childStartingWith(part.charAt(0));
+                if (child == null) {
+                    child = new Node(part);
+                    node.addStaticChild(child);
+                    return child;
+                }
+
+                int common = commonPrefix(child.prefix, part);
+                if (common < child.prefix.length()) {
+                    // Delimo postojecu granu na zajednicki deo i ostatak
+                    Node split = new Node(child.prefix.substring(common));
+                    split.staticChildren = child.staticChildren;
+                    split.variable = child.variable;
+                    split.variableName = child.variableName;
+                    split.route = child.route;
+
+                    child.prefix = child.prefix.substring(0, common);
+                    child.staticChildren = new Node[]{split};
+                    child.variable = null;
+                    child.variableName = null;
+                    child.route = null;
+                }
+                node = child;
+                part = part.substring(common);
+            }
+            return node;
+        }
+
+        Node variableChild(String name, String template) {
+            if (name.isEmpty()) {
+                throw new IllegalArgumentException("Empty path variable name in route: " + template);
+            }
+            if (variable == null) {
+                variable = new Node("");
+                variableName = name;
+            } else if (!variableName.equals(name)) {
+                throw new IllegalArgumentException("Route " + template + " uses {" + name +
+                        "} where another route already uses {" + variableName + "}");
+            }
+            return variable;
+        }
+
+        private Node childStartingWith(char c) {
+            for (Node child : staticChildren) {
+                if (child.prefix.charAt(0) == c) {
+                    return child;
+                }
+            }
+            return null;
+        }
+
+        private void addStaticChild(Node child) {
+            Node[] children = new Node[staticChildren.length + 1];
+            System.arraycopy(staticChildren, 0, children, 0, staticChildren.length);
+            children[staticChildren.length] = child;
+            staticChildren = children;
+        }
+
+        /**
+         * Matches {@code path} from {@code position}, which is where this node's prefix starts.
+         */
+        Route match(CharSequence path, int position, int[] bounds, int depth) {
+            int length = prefix.length();
+            if (path.length() - position < length) {
+                return null;
+            }
+            for (int i = 0; i < length; i++) {
+                if (path.charAt(position + i) != prefix.charAt(i)) {
+                    return null;
+                }
+            }
+            position += length;
+
+            if (position == path.length()) {
+                return route;
+            }
+
+            char next = path.charAt(position);
+            for (Node child : staticChildren) {
+                if (child.prefix.charAt(0) == next) {
+                    Route found = child.match(path, position, bounds, depth);
+                    if (found != null) {
+                        return found;
+                    }
+                    break;
+                }
+            }
+
+            if (variable != null && next != '/') {
+                int end = position;
+                while (end < path.length() && path.charAt(end) != '/') {
+                    end++;
+                }
+                bounds[depth * 2] = position;
+                bounds[depth * 2 + 1] = end;
+                return variable.match(path, end, bounds, depth + 1);
+            }
+            return null;
+        }
+
+        private static int commonPrefix(String a, String b) {
+            int max = Math.min(a.length(), b.length());
+            int i = 0;
+            while (i < max && a.charAt(i) == b.charAt(i)) {
+                i++;
+            }
+            return i;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package server;
+
+import java.net.Socket;
+
+/**
+ * Hands an accepted socket over to whatever runs {@link ServerThread}.
+ */
+public interface ConnectionDispatcher {
+
+    void dispatch(Socket socket);
+
+    default void shutdown() {
+    }
+}
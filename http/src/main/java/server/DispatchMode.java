@@ -0,0 +1,11 @@
+package server;
+
+/**
+ * How accepted connections are handed to worker threads.
+ */
+public enum DispatchMode {
+    THREAD_PER_CONNECTION,
+    POOLED,
+    // JDK 21+, na starijim verzijama se koristi POOLED
+    VIRTUAL
+}
@@ -0,0 +1,36 @@
+package server;
+
+import framework.request.exceptions.MalformedBodyException;
+import framework.request.exceptions.RequestNotValidException;
+import framework.request.exceptions.RouteNotFoundException;
+import framework.request.exceptions.UnsupportedTransferEncodingException;
+import framework.response.JsonResponse;
+import framework.response.Response;
+
+/**
+ * Error responses shared by both transports.
+ */
+public final class ErrorResponses {
+
+    private ErrorResponses() {
+    }
+
+    public static Response overloaded() {
+        JsonResponse response = JsonResponse.error(503, "Service Unavailable", "Server is overloaded, try again later");
+        response.addHeader("Retry-After", "1");
+        return response;
+    }
+
+    public static Response forException(Exception e) {
+        if (e instanceof RouteNotFoundException) {
+            return JsonResponse.error(404, "Not Found", e.getMessage());
+        }
+        if (e instanceof UnsupportedTransferEncodingException) {
+            return JsonResponse.error(501, "Not Implemented", e.getMessage());
+        }
+        if (e instanceof RequestNotValidException || e instanceof MalformedBodyException) {
+            return JsonResponse.error(400, "Bad Request", e.getMessage());
+        }
+        return JsonResponse.error(500, "Internal Server Error", "Request could not be processed");
+    }
+}
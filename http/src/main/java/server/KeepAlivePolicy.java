@@ -0,0 +1,49 @@
+package server;
+
+import framework.request.Request;
+import framework.response.Response;
+
+/**
+ * Decides whether a connection stays open after a response (HTTP/1.1 persistent connections)
+ * and adds the matching {@code Connection} headers.
+ */
+public class KeepAlivePolicy {
+    private final int idleTimeoutMillis;
+    private final int maxRequests;
+
+    public KeepAlivePolicy(ServerConfig config) {
+        this.idleTimeoutMillis = config.getKeepAliveTimeoutMillis();
+        this.maxRequests = config.getKeepAliveMaxRequests();
+    }
+
+    /**
+     * @param request the request that was just served
+     * @param served  number of requests served on this connection, including this one
+     */
+    public boolean shouldKeepAlive(Request request, int served) {
+        if (idleTimeoutMillis <= 0 || served >= maxRequests) {
+            return false;
+        }
+        String connection = request.getHeader().get("Connection");
+        if ("HTTP/1.1".equals(request.getVersion())) {
+            return connection == null || !connection.equalsIgnoreCase("close");
+        }
+        // HTTP/1.0 drzi konekciju samo ako klijent to eksplicitno trazi
+        return "HTTP/1.0".equals(request.getVersion()) && "keep-alive".equalsIgnoreCase(connection);
+    }
+
+    public void apply(Response response, boolean keepAlive, int served) {
+        if (keepAlive) {
+            response.addHeader("Connection", "keep-alive");
+            // Zaokruzeno navise: timeout=0 bi klijentu znacilo da odmah zatvori konekciju
+            int timeoutSeconds = (idleTimeoutMillis + 999) / 1000;
+            response.addHeader("Keep-Alive", "timeout=" + timeoutSeconds + ", max=" + (maxRequests - served));
+        } else {
+            response.addHeader("Connection", "close");
+        }
+    }
+
+    public int getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+}
@@ -0,0 +1,11 @@
+package server;
+
+/**
+ * What the pooled dispatcher does when every worker is busy and the queue is full.
+ */
+public enum OverloadPolicy {
+    // Odmah odgovaramo sa 503 i zatvaramo konekciju
+    REJECT,
+    // Acceptor nit ceka na slobodno mesto u redu, pa novi klijenti ostaju u backlog-u OS-a
+    BLOCK
+}
@@ -4,18 +4,43 @@ import framework.di.DIEngine;
 import framework.di.DependencyContainer;
 import framework.discovery.DiscoveryMechanism;
 import framework.route.RouteHandler;
+import server.nio.NioServer;
 
 import java.io.IOException;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
 public class Server {
     public static final int TCP_PORT = 8080;
     private final RouteHandler routeHandler;
     private final DiscoveryMechanism discoveryMechanism;
+    private final ServerConfig config;
+    private ConnectionDispatcher dispatcher;
+    private NioServer nioServer;
 
     public Server(RouteHandler routeHandler, DiscoveryMechanism discoveryMechanism) {
+        this(routeHandler, discoveryMechanism, ServerConfig.fromSystemProperties());
+    }
+
+    public Server(RouteHandler routeHandler, DiscoveryMechanism discoveryMechanism, ServerConfig config) {
         this.routeHandler = routeHandler;
         this.discoveryMechanism = discoveryMechanism;
+        this.config = config;
+    }
+
+    private ConnectionDispatcher createDispatcher(ServerConfig config) {
+        switch (config.getDispatchMode()) {
+            case THREAD_PER_CONNECTION:
+                return new ThreadPerConnectionDispatcher(routeHandler, config);
+            case VIRTUAL:
+                return VirtualThreadDispatcher.createOrFallback(routeHandler, config);
+            case POOLED:
+            default:
+                return new WorkerPoolDispatcher(routeHandler, config);
+        }
     }
 
     public void start() {
@@ -23,17 +48,67 @@ public class Server {
             // Prvo skeniramo i inicijalizujemo sve
             discoveryMechanism.scan("example");  // ili koji god je root paket
 
-            ServerSocket serverSocket = new ServerSocket(TCP_PORT);
-            System.out.println("Server is running at http://localhost:" + TCP_PORT);
+            if (config.getTransportType() == TransportType.NIO) {
+                startNio();
+            } else {
+                startBlocking();
+            }
+
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void startBlocking() throws IOException {
+        dispatcher = createDispatcher(config);
+        try (ServerSocket serverSocket = new ServerSocket(config.getPort())) {
+            System.out.println("Server is running at http://localhost:" + config.getPort() + " (" + config + ")");
+            discoveryMechanism.startWarmup();
+            startStatsReporter(dispatcher);
 
             while(true) {
                 Socket socket = serverSocket.accept();
-                new Thread(new ServerThread(socket, routeHandler)).start();
+                dispatcher.dispatch(socket);
             }
+        } finally {
+            dispatcher.shutdown();
+        }
+    }
 
-        } catch (IOException e) {
-            e.printStackTrace();
+    private void startNio() throws IOException {
+        nioServer = new NioServer(routeHandler, config);
+        nioServer.bind();
+        System.out.println("Server is running at http://localhost:" + config.getPort() + " (" + config + ")");
+        discoveryMechanism.startWarmup();
+        startStatsReporter(nioServer);
+        nioServer.start();
+    }
+
+    private void startStatsReporter(Object stats) {
+        if (config.getStatsIntervalSeconds() <= 0) {
+            return;
         }
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "dispatcher-stats");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(() -> System.out.println("[stats] " + stats),
+                config.getStatsIntervalSeconds(), config.getStatsIntervalSeconds(), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Dispatcher of the blocking transport, {@code null} before start or with the NIO transport.
+     */
+    public ConnectionDispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    /**
+     * Event-loop server of the NIO transport, {@code null} before start or with the blocking transport.
+     */
+    public NioServer getNioServer() {
+        return nioServer;
     }
 
     public static void main(String[] args) {
@@ -47,4 +122,4 @@ public class Server {
         Server server = new Server(routeHandler, discoveryMechanism);
         server.start();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,129 @@
+package server;
+
+/**
+ * Server settings, read from system properties so they can be tuned with -D flags
+ * without touching the code.
+ */
+public class ServerConfig {
+    private final int port;
+    private final TransportType transportType;
+    private final int eventLoops;
+    private final DispatchMode dispatchMode;
+    private final int workerThreads;
+    private final int queueCapacity;
+    private final OverloadPolicy overloadPolicy;
+    private final int statsIntervalSeconds;
+    private final int keepAliveTimeoutMillis;
+    private final int keepAliveMaxRequests;
+
+    public ServerConfig(int port, TransportType transportType, int eventLoops, DispatchMode dispatchMode, int workerThreads, int queueCapacity,
+                        OverloadPolicy overloadPolicy, int statsIntervalSeconds,
+                        int keepAliveTimeoutMillis, int keepAliveMaxRequests) {
+        if (workerThreads < 1) {
+            throw new IllegalArgumentException("Worker thread count must be positive: " + workerThreads);
+        }
+        if (eventLoops < 1) {
+            throw new IllegalArgumentException("Event loop count must be positive: " + eventLoops);
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be positive: " + queueCapacity);
+        }
+        this.port = port;
+        this.transportType = transportType;
+        this.eventLoops = eventLoops;
+        this.dispatchMode = dispatchMode;
+        this.workerThreads = workerThreads;
+        this.queueCapacity = queueCapacity;
+        this.overloadPolicy = overloadPolicy;
+        this.statsIntervalSeconds = statsIntervalSeconds;
+        this.keepAliveTimeoutMillis = keepAliveTimeoutMillis;
+        this.keepAliveMaxRequests = keepAliveMaxRequests;
+    }
+
+    /**
+     * Supported properties:
+     * server.port, server.transport (blocking | nio), server.eventLoops, server.dispatch (thread | pooled | virtual), server.workers, server.queue,
+     * server.overload (reject | block), server.stats.interval (seconds, 0 = off),
+     * server.keepAlive.timeout (idle millis, 0 = close after every response), server.keepAlive.maxRequests
+     *
+     * On the blocking transport with the worker pool, an idle persistent connection keeps its
+     * worker for the whole idle timeout, so as many idle clients as there are workers push every
+     * new connection into the overload policy. The default idle timeout is therefore 1 s there and
+     * 5 s on the other transports and dispatch modes.
+     */
+    public static ServerConfig fromSystemProperties() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int defaultWorkers = Math.max(16, cores * 4);
+        TransportType transportType = parseTransportType(System.getProperty("server.transport", "blocking"));
+        DispatchMode dispatchMode = parseDispatchMode(System.getProperty("server.dispatch", "pooled"));
+        boolean blockingPool = transportType == TransportType.BLOCKING && dispatchMode == DispatchMode.POOLED;
+        return new ServerConfig(
+                Integer.getInteger("server.port", Server.TCP_PORT),
+                transportType,
+                Integer.getInteger("server.eventLoops", Math.max(1, cores / 2)),
+                dispatchMode,
+                Integer.getInteger("server.workers", defaultWorkers),
+                Integer.getInteger("server.queue", 256),
+                parseOverloadPolicy(System.getProperty("server.overload", "reject")),
+                Integer.getInteger("server.stats.interval", 0),
+                Integer.getInteger("server.keepAlive.timeout", blockingPool ? 1000 : 5000),
+                Integer.getInteger("server.keepAlive.maxRequests", 100)
+        );
+    }
+
+    private static TransportType parseTransportType(String value) {
+        switch (value.trim().toLowerCase()) {
+            case "blocking":
+                return TransportType.BLOCKING;
+            case "nio":
+                return TransportType.NIO;
+            default:
+                throw new IllegalArgumentException("Unknown server.transport value: " + value);
+        }
+    }
+
+    private static DispatchMode parseDispatchMode(String value) {
+        switch (value.trim().toLowerCase()) {
+            case "thread":
+                return DispatchMode.THREAD_PER_CONNECTION;
+            case "pooled":
+                return DispatchMode.POOLED;
+            case "virtual":
+                return DispatchMode.VIRTUAL;
+            default:
+                throw new IllegalArgumentException("Unknown server.dispatch value: " + value);
+        }
+    }
+
+    private static OverloadPolicy parseOverloadPolicy(String value) {
+        switch (value.trim().toLowerCase()) {
+            case "reject":
+                return OverloadPolicy.REJECT;
+            case "block":
+                return OverloadPolicy.BLOCK;
+            default:
+                throw new IllegalArgumentException("Unknown server.overload value: " + value);
+        }
+    }
+
+    public int getPort() { return port; }
+    public TransportType getTransportType() { return transportType; }
+    public int getEventLoops() { return eventLoops; }
+    public DispatchMode getDispatchMode() { return dispatchMode; }
+    public int getWorkerThreads() { return workerThreads; }
+    public int getQueueCapacity() { return queueCapacity; }
+    public OverloadPolicy getOverloadPolicy() { return overloadPolicy; }
+    public int getStatsIntervalSeconds() { return statsIntervalSeconds; }
+    public int getKeepAliveTimeoutMillis() { return keepAliveTimeoutMillis; }
+    public int getKeepAliveMaxRequests() { return keepAliveMaxRequests; }
+
+    @Override
+    public String toString() {
+        if (transportType == TransportType.NIO) {
+            return "transport=NIO, eventLoops=" + eventLoops + ", workers=" + workerThreads +
+                    ", queue=" + queueCapacity;
+        }
+        return "transport=BLOCKING, dispatch=" + dispatchMode + ", workers=" + workerThreads + ", queue=" + queueCapacity +
+                ", overload=" + overloadPolicy;
+    }
+}
@@ -1,41 +1,37 @@
 package server;
 
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
-import framework.response.JsonResponse;
 import framework.response.Response;
-import framework.request.enums.Method;
-import framework.request.Header;
-import framework.request.Helper;
+import framework.request.HttpRequestParser;
 import framework.request.Request;
+import framework.request.RequestBuffer;
 import framework.request.exceptions.RequestNotValidException;
 import framework.route.RouteHandler;
 
 import java.io.*;
 import java.net.Socket;
-import java.util.HashMap;
-import java.util.Map;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
 
 public class ServerThread implements Runnable{
     private Socket socket;
-    private BufferedReader in;
-    private PrintWriter out;
+    private InputStream in;
+    private OutputStream out;
     private RouteHandler routeHandler;  // dodajemo RouteHandler
-    private final Gson gson;
+    private final KeepAlivePolicy keepAlivePolicy;
+    private final RequestBuffer buffer;
+    private final HttpRequestParser parser;
 
-    public ServerThread(Socket socket, RouteHandler routeHandler) {  // modifikujemo konstruktor
+    public ServerThread(Socket socket, RouteHandler routeHandler, KeepAlivePolicy keepAlivePolicy) {
         this.socket = socket;
         this.routeHandler = routeHandler;
-        this.gson = new Gson();
+        this.keepAlivePolicy = keepAlivePolicy;
+        this.buffer = new RequestBuffer(4 * 1024);
+        this.parser = new HttpRequestParser();
         try {
-            in = new BufferedReader(
-                    new InputStreamReader(
-                            socket.getInputStream()));
+            in = socket.getInputStream();
 
-            out = new PrintWriter(
-                    new BufferedWriter(
-                            new OutputStreamWriter(
-                                    socket.getOutputStream())), true);
+            // Odgovori se pisu kao bajtovi, pa streaming odgovori mogu da pisu direktno u socket
+            out = new BufferedOutputStream(socket.getOutputStream(), 8 * 1024);
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -43,91 +39,90 @@ public class ServerThread implements Runnable{
 
     public void run() {
         try {
-            Request request = this.generateRequest();
-            if(request == null) {
-                in.close();
-                out.close();
-                socket.close();
-                return;
-            }
-
-            // Koristimo RouteHandler za obradu zahteva
-            Response response = routeHandler.handleRequest(request);
-
-            out.println(response.render());
+            socket.setSoTimeout(keepAlivePolicy.getIdleTimeoutMillis());
+            int served = 0;
+            boolean keepAlive = true;
+
+            // Pipelined zahtevi se citaju redom sa istog stream-a, pa se i odgovori salju istim redom
+            while (keepAlive) {
+                Request request;
+                try {
+                    request = this.generateRequest();
+                } catch (SocketTimeoutException e) {
+                    return;  // klijent nije poslao sledeci zahtev u okviru idle timeout-a
+                } catch (RequestNotValidException e) {
+                    // ne znamo gde pocinje sledeci zahtev, pa zatvaramo konekciju
+                    send(ErrorResponses.forException(e), false, served, false);
+                    return;
+                }
+                if(request == null) {
+                    return;
+                }
+                served++;
+                keepAlive = keepAlivePolicy.shouldKeepAlive(request, served);
+
+                Response response;
+                try {
+                    // Koristimo RouteHandler za obradu zahteva
+                    response = routeHandler.handleRequest(request);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    response = ErrorResponses.forException(e);
+                }
 
-            in.close();
-            out.close();
-            socket.close();
+                send(response, keepAlive, served, "HTTP/1.1".equals(request.getVersion()));
+            }
 
         } catch (Exception e) {  // hvatamo sve izuzetke
             e.printStackTrace();
-            // možda bi trebalo poslati error response klijentu
+        } finally {
+            // worker se vraca u pool, pa konekcija mora da se zatvori i kada obrada pukne
+            close();
         }
     }
-    private Request generateRequest() throws IOException, RequestNotValidException {
-        String command = in.readLine();
-        if(command == null) {
-            return null;
-        }
 
-        System.out.println("Received command: " + command);  // debug
-
-        String[] actionRow = command.split(" ");
-        Method method = Method.valueOf(actionRow[0]);
-        String route = actionRow[1];
-        Header header = new Header();
-        HashMap<String, String> parameters = Helper.getParametersFromRoute(route);
-
-        // Čitamo headere
-        StringBuilder bodyBuilder = new StringBuilder();
-        String line;
-        while (!(line = in.readLine()).isEmpty()) {
-            System.out.println("Header line: " + line);  // debug
-            if (line.contains(": ")) {
-                String[] headerParts = line.split(": ", 2);
-                header.add(headerParts[0], headerParts[1]);
+    // Delovi odgovora se skupljaju u BufferedOutputStream-u, pa flush salje sve jednim upisom
+    private void send(Response response, boolean keepAlive, int served, boolean chunked) throws IOException {
+        keepAlivePolicy.apply(response, keepAlive, served);
+        if (response.isStreaming() && !chunked) {
+            // HTTP/1.0 klijent ne razume chunked telo, pa se odgovor ipak pravi unapred
+            for (ByteBuffer buffer : response.encode()) {
+                Response.write(buffer, out);
             }
+        } else {
+            // Ako pisanje pukne usred tela, izuzetak zatvara konekciju jer je odgovor vec poceo
+            response.writeTo(out);
         }
+        out.flush();
+    }
 
-        // Za POST zahteve, čitamo body
-        if (method.equals(Method.POST)) {
-            String contentType = header.get("Content-Type");
-            String contentLengthStr = header.get("Content-Length");
-
-            if (contentLengthStr != null) {
-                int contentLength = Integer.parseInt(contentLengthStr);
-                char[] bodyChars = new char[contentLength];
-                in.read(bodyChars, 0, contentLength);
-                String body = new String(bodyChars);
-
-                System.out.println("Received body: " + body);  // debug
+    private void close() {
+        try {
+            if (in != null) {
+                in.close();
+            }
+            if (out != null) {
+                out.close();
+            }
+            socket.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
 
-                if (contentType != null && contentType.contains("application/json")) {
-                    try {
-                        TypeToken<Map<String, Object>> typeToken = new TypeToken<Map<String, Object>>() {};
-                        Map<String, Object> jsonMap = gson.fromJson(body, typeToken.getType());
-                        for (Map.Entry<String, Object> entry : jsonMap.entrySet()) {
-                            // Konvertuj double u int ako je broj
-                            if (entry.getValue() instanceof Double) {
-                                double value = (Double) entry.getValue();
-                                parameters.put(entry.getKey(), String.valueOf((int)value));
-                            } else {
-                                parameters.put(entry.getKey(), String.valueOf(entry.getValue()));
-                            }
-                        }
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                        throw new RequestNotValidException("Invalid JSON body: " + e.getMessage());
-                    }
-                }
-                 else {
-                    parameters.putAll(Helper.getParametersFromString(body));
+    private Request generateRequest() throws IOException, RequestNotValidException {
+        // Prethodni zahtev je obradjen, pa bafer sme da se sabije
+        buffer.compact();
+
+        Request request;
+        while ((request = parser.parse(buffer)) == null) {
+            if (buffer.readFrom(in) < 0) {
+                if (buffer.isEmpty()) {
+                    return null;
                 }
+                throw new RequestNotValidException("Connection closed in the middle of a request");
             }
         }
-
-
-        return new Request(method, route, header, parameters);
+        return request;
     }
 }
@@ -0,0 +1,23 @@
+package server;
+
+import framework.route.RouteHandler;
+
+import java.net.Socket;
+
+/**
+ * Original behaviour: one new platform thread for every accepted connection.
+ */
+public class ThreadPerConnectionDispatcher implements ConnectionDispatcher {
+    private final RouteHandler routeHandler;
+    private final KeepAlivePolicy keepAlivePolicy;
+
+    public ThreadPerConnectionDispatcher(RouteHandler routeHandler, ServerConfig config) {
+        this.routeHandler = routeHandler;
+        this.keepAlivePolicy = new KeepAlivePolicy(config);
+    }
+
+    @Override
+    public void dispatch(Socket socket) {
+        new Thread(new ServerThread(socket, routeHandler, keepAlivePolicy)).start();
+    }
+}
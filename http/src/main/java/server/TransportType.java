@@ -0,0 +1,11 @@
+package server;
+
+/**
+ * Socket layer used by the server.
+ */
+public enum TransportType {
+    // ServerSocket + ServerThread, jedna nit po aktivnoj konekciji
+    BLOCKING,
+    // ServerSocketChannel + Selector event loop-ovi
+    NIO
+}
@@ -0,0 +1,80 @@
+package server;
+
+import framework.route.RouteHandler;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.net.Socket;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Runs every connection on its own virtual thread (JDK 21+). The blocking reads and writes in
+ * {@link ServerThread} park the virtual thread instead of holding a platform thread, so the
+ * number of open connections is no longer limited by native thread stacks.
+ *
+ * The project still compiles for Java 11, so the JDK 21 API is looked up at runtime.
+ */
+public class VirtualThreadDispatcher implements ConnectionDispatcher {
+    private final RouteHandler routeHandler;
+    private final KeepAlivePolicy keepAlivePolicy;
+    private final ExecutorService executor;
+
+    private VirtualThreadDispatcher(RouteHandler routeHandler, ServerConfig config, ExecutorService executor) {
+        this.routeHandler = routeHandler;
+        this.keepAlivePolicy = new KeepAlivePolicy(config);
+        this.executor = executor;
+    }
+
+    /**
+     * Returns a virtual thread dispatcher when the running JDK supports it, otherwise
+     * the pooled platform thread dispatcher.
+     */
+    public static ConnectionDispatcher createOrFallback(RouteHandler routeHandler, ServerConfig config) {
+        ExecutorService executor = newVirtualThreadExecutor();
+        if (executor == null) {
+            System.out.println("Virtual threads are not available on Java " +
+                    Runtime.version().feature() + ", falling back to pooled dispatch");
+            return new WorkerPoolDispatcher(routeHandler, config);
+        }
+        return new VirtualThreadDispatcher(routeHandler, config, executor);
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        MethodHandle factory = findFactory();
+        if (factory == null) {
+            return null;
+        }
+        try {
+            return (ExecutorService) factory.invoke();
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    private static MethodHandle findFactory() {
+        try {
+            return MethodHandles.publicLookup().findStatic(
+                    java.util.concurrent.Executors.class,
+                    "newVirtualThreadPerTaskExecutor",
+                    MethodType.methodType(ExecutorService.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void dispatch(Socket socket) {
+        executor.execute(new ServerThread(socket, routeHandler, keepAlivePolicy));
+    }
+
+    @Override
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public String toString() {
+        return "virtual-thread-per-connection";
+    }
+}
@@ -0,0 +1,158 @@
+package server;
+
+import framework.response.Response;
+import framework.route.RouteHandler;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs connections on a fixed set of worker threads with a bounded queue in front of them.
+ * When both are full the configured {@link OverloadPolicy} decides whether the client gets
+ * a 503 or the acceptor stops taking new connections until a slot frees up.
+ */
+public class WorkerPoolDispatcher implements ConnectionDispatcher {
+    private final RouteHandler routeHandler;
+    private final KeepAlivePolicy keepAlivePolicy;
+    private final OverloadPolicy overloadPolicy;
+    private final ThreadPoolExecutor executor;
+    // Za BLOCK: jedno mesto po workeru i po mestu u redu, zauzeto dok se konekcija ne obradi
+    private final Semaphore slots;
+    private final AtomicLong rejectedConnections;
+
+    public WorkerPoolDispatcher(RouteHandler routeHandler, ServerConfig config) {
+        this.routeHandler = routeHandler;
+        this.keepAlivePolicy = new KeepAlivePolicy(config);
+        this.overloadPolicy = config.getOverloadPolicy();
+        this.rejectedConnections = new AtomicLong();
+        this.slots = new Semaphore(config.getWorkerThreads() + config.getQueueCapacity());
+        this.executor = new ThreadPoolExecutor(
+                config.getWorkerThreads(),
+                config.getWorkerThreads(),
+                0L, TimeUnit.MILLISECONDS,
+                // Kod BLOCK red ogranicava semafor: worker oslobadja mesto pre nego sto uzme sledeci
+                // zadatak iz reda, pa bi ograniceni red tada mogao nakratko da odbije execute()
+                overloadPolicy == OverloadPolicy.BLOCK
+                        ? new LinkedBlockingQueue<>()
+                        : new ArrayBlockingQueue<>(config.getQueueCapacity()),
+                new WorkerThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.prestartAllCoreThreads();
+    }
+
+    @Override
+    public void dispatch(Socket socket) {
+        ServerThread task = new ServerThread(socket, routeHandler, keepAlivePolicy);
+
+        if (overloadPolicy == OverloadPolicy.BLOCK) {
+            try {
+                // Acceptor ceka dok se ne oslobodi mesto; execute() tada uvek ima mesta u redu
+                slots.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                reject(socket);
+                return;
+            }
+            try {
+                executor.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        slots.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Pool je ugasen
+                slots.release();
+                reject(socket);
+            }
+            return;
+        }
+
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            reject(socket);
+        }
+    }
+
+    private void reject(Socket socket) {
+        rejectedConnections.incrementAndGet();
+        Response response = ErrorResponses.overloaded();
+        response.addHeader("Connection", "close");
+
+        try (socket) {
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+            response.writeTo(out);
+            out.flush();
+            socket.shutdownOutput();
+            // Citamo ono sto je klijent vec poslao, inace close() salje RST i klijent ne vidi 503
+            InputStream in = socket.getInputStream();
+            in.skip(in.available());
+        } catch (IOException e) {
+            // klijent je vec otisao, nema kome da se javi
+        }
+    }
+
+    /**
+     * Connections waiting for a free worker.
+     */
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Workers currently serving a connection.
+     */
+    public int getActiveWorkers() {
+        return executor.getActiveCount();
+    }
+
+    public int getPoolSize() {
+        return executor.getPoolSize();
+    }
+
+    public long getCompletedConnections() {
+        return executor.getCompletedTaskCount();
+    }
+
+    public long getRejectedConnections() {
+        return rejectedConnections.get();
+    }
+
+    @Override
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public String toString() {
+        return "active=" + getActiveWorkers() + "/" + getPoolSize() +
+                ", queued=" + getQueueDepth() +
+                ", completed=" + getCompletedConnections() +
+                ", rejected=" + getRejectedConnections();
+    }
+
+    private static class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "http-worker-" + counter.incrementAndGet());
+            thread.setDaemon(false);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package server.nio;
+
+import java.io.IOException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * One selector thread serving many connections. All channel and key operations happen on this
+ * thread; other threads hand work over through {@link #execute(Runnable)}.
+ */
+class EventLoop implements Runnable {
+    private static final long SWEEP_INTERVAL_MILLIS = 1000;
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(SWEEP_INTERVAL_MILLIS);
+
+    private final Selector selector;
+    private final Queue<Runnable> tasks;
+    private final Thread thread;
+    private final long idleTimeoutNanos;
+    // Selector.keys() nije bezbedan za citanje van ove niti, pa se broj vodi posebno za statistiku
+    private final AtomicInteger connections;
+    private volatile boolean running;
+
+    EventLoop(String name, int idleTimeoutMillis) throws IOException {
+        this.selector = Selector.open();
+        this.tasks = new ConcurrentLinkedQueue<>();
+        this.thread = new Thread(this, name);
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        this.connections = new AtomicInteger();
+        this.running = true;
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * Registers an accepted, non-blocking channel with this loop.
+     */
+    void register(SocketChannel channel, Function<SelectionKey, NioConnection> connectionFactory) {
+        execute(() -> {
+            try {
+                SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+                key.attach(connectionFactory.apply(key));
+                connections.incrementAndGet();
+            } catch (IOException e) {
+                e.printStackTrace();
+                closeQuietly(channel);
+            }
+        });
+    }
+
+    /**
+     * Runs the task on the loop thread at the next wakeup.
+     */
+    void execute(Runnable task) {
+        tasks.add(task);
+        selector.wakeup();
+    }
+
+    /**
+     * Open connections on this loop; safe to call from any thread.
+     */
+    int connectionCount() {
+        return connections.get();
+    }
+
+    /**
+     * Called by a connection, on this loop's thread, when it closes.
+     */
+    void connectionClosed() {
+        connections.decrementAndGet();
+    }
+
+    @Override
+    public void run() {
+        try {
+            long nextSweep = System.nanoTime() + SWEEP_INTERVAL_NANOS;
+            while (running) {
+                selector.select(SWEEP_INTERVAL_MILLIS);
+                runTasks();
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+
+                    NioConnection connection = (NioConnection) key.attachment();
+                    if (connection == null || !key.isValid()) {
+                        continue;
+                    }
+                    if (key.isReadable()) {
+                        connection.onReadable();
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        connection.onWritable();
+                    }
+                }
+
+                long now = System.nanoTime();
+                if (idleTimeoutNanos > 0 && now >= nextSweep) {
+                    closeIdle(now);
+                    nextSweep = now + SWEEP_INTERVAL_NANOS;
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            if (running) {
+                e.printStackTrace();
+            }
+        } finally {
+            closeAll();
+        }
+    }
+
+    private void closeIdle(long now) {
+        for (SelectionKey key : selector.keys()) {
+            NioConnection connection = (NioConnection) key.attachment();
+            if (connection != null && key.isValid()) {
+                connection.closeIfIdle(now, idleTimeoutNanos);
+            }
+        }
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    void shutdown() {
+        running = false;
+        selector.wakeup();
+    }
+
+    private void closeAll() {
+        try {
+            for (SelectionKey key : selector.keys()) {
+                closeQuietly(key.channel());
+            }
+            selector.close();
+        } catch (IOException | ClosedSelectorException e) {
+            // vec zatvoreno
+        }
+    }
+
+    private static void closeQuietly(java.nio.channels.Channel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+}
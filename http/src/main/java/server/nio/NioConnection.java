@@ -0,0 +1,307 @@
+package server.nio;
+
+import framework.request.HttpRequestParser;
+import framework.request.Request;
+import framework.request.RequestBuffer;
+import framework.request.exceptions.RequestNotValidException;
+import framework.response.Response;
+import framework.route.RouteHandler;
+import server.ErrorResponses;
+import server.KeepAlivePolicy;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * State of one client connection on the NIO transport. Reads are decoded on the event loop;
+ * a complete request is handed to a worker for routing, and reading is paused until its
+ * response has been written, so pipelined requests are answered in order. After that the
+ * connection either goes back to reading (keep-alive) or is closed.
+ *
+ * Streaming responses are written piece by piece: the worker serializes one piece, hands it to
+ * the event loop and waits until it has been written to the socket before producing the next,
+ * so a slow client holds back the serializer instead of the body piling up on the heap.
+ */
+class NioConnection {
+    private static final int INITIAL_BUFFER_SIZE = 4 * 1024;
+    // Najvise ovoliko bajtova strimovanog tela ceka na upis u socket
+    private static final int STREAM_PIECE_SIZE = 16 * 1024;
+
+    private final SocketChannel channel;
+    private final SelectionKey key;
+    private final EventLoop eventLoop;
+    private final RouteHandler routeHandler;
+    private final ExecutorService workers;
+    private final HttpRequestParser parser;
+    private final KeepAlivePolicy keepAlivePolicy;
+
+    private final RequestBuffer readBuffer;
+    private ByteBuffer[] writeBuffers;
+    // Sta se radi kada se writeBuffers isprazne
+    private Runnable afterWrite;
+    // Worker koji strimuje odgovor ceka na ovo dok se njegov deo ne upise
+    private CompletableFuture<Void> pieceWritten;
+    private boolean inFlight;
+    private boolean closed;
+    private int served;
+    private long lastActivity;
+
+    NioConnection(SocketChannel channel, SelectionKey key, EventLoop eventLoop, RouteHandler routeHandler,
+                  ExecutorService workers, HttpRequestParser parser, KeepAlivePolicy keepAlivePolicy) {
+        this.channel = channel;
+        this.key = key;
+        this.eventLoop = eventLoop;
+        this.routeHandler = routeHandler;
+        this.workers = workers;
+        this.parser = parser;
+        this.keepAlivePolicy = keepAlivePolicy;
+        this.readBuffer = new RequestBuffer(INITIAL_BUFFER_SIZE);
+        this.lastActivity = System.nanoTime();
+    }
+
+    void onReadable() {
+        if (inFlight) {
+            return;
+        }
+        try {
+            // Nijedan zahtev nije u obradi, pa niko ne cita iz starog dela bafera
+            readBuffer.compact();
+            int read = readBuffer.readFrom(channel);
+            if (read < 0) {
+                close();
+                return;
+            }
+            lastActivity = System.nanoTime();
+            decodeNext();
+        } catch (IOException e) {
+            close();
+        }
+    }
+
+    private void decodeNext() {
+        Request request;
+        try {
+            request = parser.parse(readBuffer);
+        } catch (RequestNotValidException e) {
+            // ne znamo gde pocinje sledeci zahtev, pa posle odgovora zatvaramo konekciju
+            key.interestOps(0);
+            respond(ErrorResponses.forException(e), false);
+            return;
+        }
+        if (request == null) {
+            return;
+        }
+
+        // Dok se zahtev obradjuje ne citamo dalje sa socket-a
+        key.interestOps(0);
+        inFlight = true;
+        served++;
+        boolean keepAliveAfter = keepAlivePolicy.shouldKeepAlive(request, served);
+        int servedNow = served;
+        try {
+            workers.execute(() -> handle(request, keepAliveAfter, servedNow));
+        } catch (RejectedExecutionException e) {
+            respond(ErrorResponses.overloaded(), false);
+        }
+    }
+
+    // Izvrsava se na worker niti; i serijalizacija odgovora je ovde, da ne blokira event loop
+    private void handle(Request request, boolean keepAliveAfter, int servedNow) {
+        Response response;
+        try {
+            response = routeHandler.handleRequest(request);
+        } catch (Exception e) {
+            e.printStackTrace();
+            response = ErrorResponses.forException(e);
+        }
+
+        ByteBuffer[] bytes;
+        boolean keepAliveNext = keepAliveAfter;
+        try {
+            keepAlivePolicy.apply(response, keepAliveAfter, servedNow);
+            // HTTP/1.0 klijenti ne razumeju chunked, pa dobijaju ceo odgovor sa Content-Length
+            if (response.isStreaming() && "HTTP/1.1".equals(request.getVersion())) {
+                stream(response, keepAliveAfter);
+                return;
+            }
+            bytes = response.encode();
+        } catch (Exception e) {
+            e.printStackTrace();
+            Response error = ErrorResponses.forException(e);
+            keepAliveNext = false;
+            keepAlivePolicy.apply(error, false, servedNow);
+            bytes = error.encode();
+        }
+        ByteBuffer[] finalBytes = bytes;
+        boolean finalKeepAlive = keepAliveNext;
+        eventLoop.execute(() -> write(finalBytes, finalKeepAlive));
+    }
+
+    private void respond(Response response, boolean keepAliveAfter) {
+        keepAlivePolicy.apply(response, keepAliveAfter, served);
+        write(response.encode(), keepAliveAfter);
+    }
+
+    /**
+     * Runs on the worker: {@link Response#writeTo} writes into a {@link PieceOutput}, which blocks
+     * the worker while each piece is written by the event loop. Chunk framing is the same as on
+     * the blocking transport.
+     */
+    private void stream(Response response, boolean keepAliveAfter) {
+        try {
+            OutputStream out = new BufferedOutputStream(new PieceOutput(), STREAM_PIECE_SIZE);
+            response.writeTo(out);
+            out.flush();
+        } catch (Exception e) {
+            // Deo odgovora je mozda vec poslat, pa ostaje samo da se konekcija prekine
+            if (!(e instanceof IOException)) {
+                e.printStackTrace();
+            }
+            eventLoop.execute(this::close);
+            return;
+        }
+        eventLoop.execute(() -> finish(keepAliveAfter));
+    }
+
+    // Na event loop niti: upisuje jedan deo strimovanog tela i javlja workeru kada je upisan
+    private void writePiece(ByteBuffer piece, CompletableFuture<Void> written) {
+        if (!channel.isOpen()) {
+            written.completeExceptionally(new ClosedChannelException());
+            return;
+        }
+        pieceWritten = written;
+        writeBuffers(new ByteBuffer[]{piece}, () -> {
+            // Dok worker ne preda sledeci deo nema sta da se radi sa socket-om
+            key.interestOps(0);
+            pieceWritten = null;
+            written.complete(null);
+        });
+    }
+
+    private void write(ByteBuffer[] buffers, boolean keepAliveAfter) {
+        writeBuffers(buffers, () -> finish(keepAliveAfter));
+    }
+
+    private void writeBuffers(ByteBuffer[] buffers, Runnable whenWritten) {
+        writeBuffers = buffers;
+        afterWrite = whenWritten;
+        onWritable();
+    }
+
+    void onWritable() {
+        try {
+            // Status linija, header-i i telo idu jednim gathering upisom
+            channel.write(writeBuffers);
+            if (hasRemaining(writeBuffers)) {
+                key.interestOps(SelectionKey.OP_WRITE);
+                return;
+            }
+            writeBuffers = null;
+            lastActivity = System.nanoTime();
+            Runnable next = afterWrite;
+            afterWrite = null;
+            next.run();
+        } catch (IOException e) {
+            close();
+        }
+    }
+
+    // Odgovor je ceo upisan
+    private void finish(boolean keepAliveAfter) {
+        inFlight = false;
+        if (!keepAliveAfter) {
+            close();
+            return;
+        }
+        key.interestOps(SelectionKey.OP_READ);
+        // Sledeci pipelined zahtev je mozda vec u baferu
+        decodeNext();
+    }
+
+    // Poslednji bafer moze biti prazan (npr. telo duzine 0), pa se proveravaju svi
+    private static boolean hasRemaining(ByteBuffer[] buffers) {
+        for (ByteBuffer buffer : buffers) {
+            if (buffer.hasRemaining()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Closes the connection if it has waited for a new request longer than the idle timeout.
+     */
+    void closeIfIdle(long now, long idleTimeoutNanos) {
+        if (!inFlight && writeBuffers == null && now - lastActivity > idleTimeoutNanos) {
+            close();
+        }
+    }
+
+    /**
+     * Worker side of a streamed response. Each write is copied into one reused buffer, handed to
+     * the event loop and waited for, so at most one piece per connection is held in memory.
+     */
+    private final class PieceOutput extends OutputStream {
+        private final ByteBuffer piece = ByteBuffer.allocate(STREAM_PIECE_SIZE);
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                int n = Math.min(len, piece.capacity());
+                piece.clear();
+                piece.put(b, off, n);
+                piece.flip();
+                send();
+                off += n;
+                len -= n;
+            }
+        }
+
+        private void send() throws IOException {
+            CompletableFuture<Void> written = new CompletableFuture<>();
+            eventLoop.execute(() -> writePiece(piece, written));
+            try {
+                written.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while streaming a response");
+            } catch (ExecutionException e) {
+                throw new IOException("Connection closed while streaming a response", e.getCause());
+            }
+        }
+    }
+
+    void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        eventLoop.connectionClosed();
+        key.cancel();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // ignore
+        }
+        if (pieceWritten != null) {
+            // Worker koji ceka na upis dobija gresku umesto da ceka zauvek
+            pieceWritten.completeExceptionally(new ClosedChannelException());
+            pieceWritten = null;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package server.nio;
+
+import framework.request.HttpRequestParser;
+import framework.route.RouteHandler;
+import server.KeepAlivePolicy;
+import server.ServerConfig;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking transport: a single acceptor hands connections round-robin to a few selector
+ * event loops. Idle and slow clients only cost a buffer, not a thread; worker threads are only
+ * used while a complete request is being routed.
+ */
+public class NioServer {
+    private final RouteHandler routeHandler;
+    private final ServerConfig config;
+    private final EventLoop[] eventLoops;
+    private final ThreadPoolExecutor workers;
+    private final KeepAlivePolicy keepAlivePolicy;
+    private ServerSocketChannel serverChannel;
+
+    public NioServer(RouteHandler routeHandler, ServerConfig config) throws IOException {
+        this.routeHandler = routeHandler;
+        this.config = config;
+        this.keepAlivePolicy = new KeepAlivePolicy(config);
+        this.eventLoops = new EventLoop[config.getEventLoops()];
+        for (int i = 0; i < eventLoops.length; i++) {
+            eventLoops[i] = new EventLoop("nio-loop-" + (i + 1), config.getKeepAliveTimeoutMillis());
+        }
+        AtomicInteger counter = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(
+                config.getWorkerThreads(),
+                config.getWorkerThreads(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(config.getQueueCapacity()),
+                runnable -> new Thread(runnable, "nio-worker-" + counter.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Opens the listening socket and starts the event loops. Called by {@link #start()} if it
+     * hasn't been already; calling it first lets the caller act once the port is open.
+     */
+    public void bind() throws IOException {
+        if (serverChannel != null) {
+            return;
+        }
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(config.getPort()));
+        for (EventLoop eventLoop : eventLoops) {
+            eventLoop.start();
+        }
+    }
+
+    /**
+     * Binds the port and accepts connections on the calling thread until the server is shut down.
+     */
+    public void start() throws IOException {
+        bind();
+
+        int next = 0;
+        try {
+            while (serverChannel.isOpen()) {
+                SocketChannel channel = serverChannel.accept();
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+
+                EventLoop eventLoop = eventLoops[next];
+                next = (next + 1) % eventLoops.length;
+                eventLoop.register(channel, key -> new NioConnection(channel, key, eventLoop, routeHandler,
+                        workers, new HttpRequestParser(), keepAlivePolicy));
+            }
+        } finally {
+            shutdown();
+        }
+    }
+
+    public void shutdown() {
+        for (EventLoop eventLoop : eventLoops) {
+            eventLoop.shutdown();
+        }
+        workers.shutdown();
+        try {
+            if (serverChannel != null) {
+                serverChannel.close();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public int getOpenConnections() {
+        int total = 0;
+        for (EventLoop eventLoop : eventLoops) {
+            total += eventLoop.connectionCount();
+        }
+        return total;
+    }
+
+    public int getQueueDepth() {
+        return workers.getQueue().size();
+    }
+
+    public int getActiveWorkers() {
+        return workers.getActiveCount();
+    }
+
+    @Override
+    public String toString() {
+        return "connections=" + getOpenConnections() +
+                ", active=" + getActiveWorkers() + "/" + workers.getPoolSize() +
+                ", queued=" + getQueueDepth();
+    }
+}